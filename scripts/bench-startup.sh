@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request and resident memory of the application in three modes:
+# the default fat jar, the fast-start profile, and the fast-start profile on the CDS archive
+# produced by scripts/cds-train.sh. Each mode is started several times; the script reports
+# the milliseconds until /login first answers and the RSS right after that request.
+#
+# Usage: scripts/bench-startup.sh [jar] [runs] [cds-dir]
+
+set -euo pipefail
+
+JAR="${1:-$(ls target/*.jar | head -n 1)}"
+RUNS="${2:-5}"
+CDS="${3:-target/cds}"
+PORT="${PORT:-8091}"
+
+measure() {
+    local label="$1"
+    shift
+
+    for run in $(seq 1 "$RUNS"); do
+        local started
+        started=$(date +%s%N)
+        "$@" -Dserver.port="$PORT" > /dev/null 2>&1 &
+        local pid=$!
+
+        until curl -s -o /dev/null "http://localhost:$PORT/login"; do
+            sleep 0.05
+        done
+
+        local elapsed=$(( ($(date +%s%N) - started) / 1000000 ))
+        local rss
+        rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        printf "%-20s run %d: %6d ms to first request, %7d KB RSS\n" "$label" "$run" "$elapsed" "$rss"
+
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+    done
+}
+
+run_default() { exec java "$@" -jar "$JAR"; }
+run_fast_start() { exec java -Dspring.profiles.active=fast-start "$@" -jar "$JAR"; }
+run_cds() {
+    exec java -XX:SharedArchiveFile="$CDS/app.jsa" -Dspring.profiles.active=fast-start "$@" \
+        -cp "$(cat "$CDS/classpath")" "$(cat "$CDS/main-class")"
+}
+
+measure default run_default
+measure fast-start run_fast_start
+
+if [ -f "$CDS/app.jsa" ]; then
+    measure fast-start+cds run_cds
+else
+    echo "no CDS archive in $CDS, run scripts/cds-train.sh first"
+fi
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+#
+# Compares request throughput of the platform-thread pool with the virtual-thread mode.
+# Starts the packaged application once per mode, warms it up and runs wrk against the
+# anonymous read endpoints. Requires a running database and `wrk` on the PATH.
+#
+# Usage: scripts/bench-threads.sh [jar] [duration] [connections]
+
+set -euo pipefail
+
+JAR="${1:-$(ls target/*.jar | head -n 1)}"
+DURATION="${2:-30s}"
+CONNECTIONS="${3:-400}"
+PORT="${PORT:-8089}"
+URLS=("/" "/article/1" "/tag/java" "/login")
+
+run_mode() {
+    local mode="$1"
+    java -Dserver.port="$PORT" -Dblog.threads.virtual="$mode" -jar "$JAR" > "bench-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" RETURN
+
+    until curl -s -o /dev/null "http://localhost:$PORT/login"; do
+        sleep 1
+    done
+
+    for url in "${URLS[@]}"; do
+        wrk -t4 -c"$CONNECTIONS" -d10s "http://localhost:$PORT$url" > /dev/null
+    done
+
+    for url in "${URLS[@]}"; do
+        local rps
+        rps=$(wrk -t4 -c"$CONNECTIONS" -d"$DURATION" "http://localhost:$PORT$url" | awk '/Requests\/sec/ {print $2}')
+        printf "%-10s %-16s %s req/s\n" "$([ "$mode" = true ] && echo virtual || echo platform)" "$url" "$rps"
+    done
+
+    if [ "$mode" = true ]; then
+        echo "pinned events logged: $(grep -c 'Virtual thread pinned' "bench-$mode.log" || true)"
+    fi
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+run_mode false
+run_mode true
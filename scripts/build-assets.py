@@ -0,0 +1,224 @@
+#!/usr/bin/env python3
+#
+# Build-time asset stage for static/css/style.css.
+#
+# Removes rules whose class or id selectors are not used by any template, minifies the
+# remainder and writes it next to gzip and brotli variants into the packaged resources.
+# At runtime the resource chain in WebResourceConfig fingerprints the file name from its
+# content and serves the .gz/.br variant directly when the client accepts it.
+#
+# Run after resources are copied and before the jar is built, e.g.
+#     mvn process-resources && scripts/build-assets.py && mvn package
+#
+# Usage: scripts/build-assets.py [--output target/classes/static/css] [--keep class ...]
+
+import argparse
+import gzip
+import os
+import re
+import shutil
+import subprocess
+import sys
+
+ROOT = os.path.dirname(os.path.dirname(os.path.abspath(__file__)))
+RESOURCES = os.path.join(ROOT, "src", "main", "resources")
+SOURCE = os.path.join(RESOURCES, "static", "css", "style.css")
+TEMPLATES = os.path.join(RESOURCES, "templates")
+
+# Classes added at runtime by the Bootstrap scripts, never present in the templates.
+JS_CLASSES = {
+    "active", "affix", "affix-top", "affix-bottom", "collapse", "collapsing", "disabled",
+    "dropdown-backdrop", "fade", "focus", "in", "modal-backdrop", "modal-open", "next",
+    "open", "popover", "prev", "tooltip", "left", "right", "top", "bottom", "tooltip-inner",
+    "tooltip-arrow", "popover-title", "popover-content", "arrow", "item",
+}
+
+CLASS_ATTRIBUTE = re.compile(r'\b(?:class|th:class|th:classappend)\s*=\s*"([^"]*)"')
+ID_ATTRIBUTE = re.compile(r'\b(?:id|th:id)\s*=\s*"([^"]*)"')
+NAME_TOKEN = re.compile(r"[A-Za-z_][\w-]*")
+SELECTOR_CLASS = re.compile(r"\.(-?[A-Za-z_][\w-]*)")
+SELECTOR_ID = re.compile(r"#(-?[A-Za-z_][\w-]*)")
+ATTRIBUTE_SELECTOR = re.compile(r"\[[^\]]*\]")
+COMMENT = re.compile(r"/\*.*?\*/", re.S)
+LICENSE_COMMENT = re.compile(r"/\*!.*?\*/", re.S)
+
+
+def used_names(extra_classes):
+    classes, ids = set(extra_classes) | JS_CLASSES, set()
+    for directory, _, files in os.walk(TEMPLATES):
+        for name in files:
+            if not name.endswith(".html"):
+                continue
+            with open(os.path.join(directory, name), encoding="utf-8") as template:
+                html = template.read()
+            for value in CLASS_ATTRIBUTE.findall(html):
+                classes.update(NAME_TOKEN.findall(value))
+            for value in ID_ATTRIBUTE.findall(html):
+                ids.update(NAME_TOKEN.findall(value))
+    return classes, ids
+
+
+def split_top_level(text, separator):
+    parts, depth, quote, current = [], 0, None, []
+    for char in text:
+        if quote:
+            current.append(char)
+            if char == quote:
+                quote = None
+            continue
+        if char in "\"'":
+            quote = char
+        elif char in "([":
+            depth += 1
+        elif char in ")]":
+            depth -= 1
+        elif char == separator and depth == 0:
+            parts.append("".join(current))
+            current = []
+            continue
+        current.append(char)
+    parts.append("".join(current))
+    return parts
+
+
+def parse_block(css, position):
+    """Returns (nodes, position) where a node is (prelude, body) and body is either a
+    declaration string or a list of nested nodes."""
+    nodes, start, quote = [], position, None
+    while position < len(css):
+        char = css[position]
+        if quote:
+            if char == quote:
+                quote = None
+        elif char in "\"'":
+            quote = char
+        elif char == "{":
+            prelude = css[start:position].strip()
+            if prelude.startswith("@media") or prelude.startswith("@supports"):
+                children, position = parse_block(css, position + 1)
+                nodes.append((prelude, children))
+            else:
+                end = find_closing(css, position + 1)
+                nodes.append((prelude, css[position + 1:end]))
+                position = end
+            start = position + 1
+        elif char == "}":
+            return nodes, position
+        elif char == ";" and css[start:position].strip().startswith("@"):
+            nodes.append((css[start:position].strip(), None))
+            start = position + 1
+        position += 1
+    return nodes, position
+
+
+def find_closing(css, position):
+    depth, quote = 1, None
+    while position < len(css):
+        char = css[position]
+        if quote:
+            if char == quote:
+                quote = None
+        elif char in "\"'":
+            quote = char
+        elif char == "{":
+            depth += 1
+        elif char == "}":
+            depth -= 1
+            if depth == 0:
+                return position
+        position += 1
+    raise ValueError("unbalanced braces in stylesheet")
+
+
+def selector_used(selector, classes, ids):
+    bare = ATTRIBUTE_SELECTOR.sub("", selector)
+    return all(name in classes for name in SELECTOR_CLASS.findall(bare)) \
+        and all(name in ids for name in SELECTOR_ID.findall(bare))
+
+
+def minify_selector(selector):
+    selector = re.sub(r"\s+", " ", selector.strip())
+    return re.sub(r"\s*([>+~])\s*", r"\1", selector)
+
+
+def minify_declarations(body):
+    declarations = []
+    for declaration in split_top_level(body, ";"):
+        declaration = re.sub(r"\s+", " ", declaration.strip())
+        if not declaration:
+            continue
+        name, _, value = declaration.partition(":")
+        declarations.append(name.strip() + ":" + value.strip())
+    return ";".join(declarations)
+
+
+def render(nodes, classes, ids):
+    output, kept, dropped = [], 0, 0
+    for prelude, body in nodes:
+        if body is None:
+            output.append(prelude + ";")
+        elif isinstance(body, list):
+            inner, inner_kept, inner_dropped = render(body, classes, ids)
+            kept += inner_kept
+            dropped += inner_dropped
+            if inner:
+                output.append(re.sub(r"\s+", " ", prelude) + "{" + inner + "}")
+        elif prelude.startswith("@"):
+            # Keyframes, font faces and viewport rules are kept, only their whitespace is removed.
+            body = re.sub(r"\s*([{};:,])\s*", r"\1", re.sub(r"\s+", " ", body.strip()))
+            output.append(re.sub(r"\s+", " ", prelude) + "{" + body + "}")
+        else:
+            selectors = [s for s in split_top_level(prelude, ",") if s.strip()]
+            used = [minify_selector(s) for s in selectors if selector_used(s, classes, ids)]
+            kept += len(used)
+            dropped += len(selectors) - len(used)
+            declarations = minify_declarations(body)
+            if used and declarations:
+                output.append(",".join(used) + "{" + declarations + "}")
+    return "".join(output), kept, dropped
+
+
+def write_variants(path, data):
+    with open(path, "wb") as css:
+        css.write(data)
+    with gzip.open(path + ".gz", "wb", compresslevel=9) as compressed:
+        compressed.write(data)
+
+    try:
+        import brotli
+        with open(path + ".br", "wb") as compressed:
+            compressed.write(brotli.compress(data, quality=11))
+    except ImportError:
+        if shutil.which("brotli"):
+            subprocess.run(["brotli", "-f", "-q", "11", "-o", path + ".br", path], check=True)
+        else:
+            print("brotli not available, skipping .br variant", file=sys.stderr)
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__)
+    parser.add_argument("--output", default=os.path.join(ROOT, "target", "classes", "static", "css"))
+    parser.add_argument("--keep", nargs="*", default=[], help="extra class names to keep")
+    arguments = parser.parse_args()
+
+    with open(SOURCE, encoding="utf-8") as source:
+        css = source.read()
+
+    banners = "".join(LICENSE_COMMENT.findall(css))
+    css = COMMENT.sub("", css)
+
+    classes, ids = used_names(arguments.keep)
+    nodes, _ = parse_block(css, 0)
+    minified, kept, dropped = render(nodes, classes, ids)
+
+    os.makedirs(arguments.output, exist_ok=True)
+    target = os.path.join(arguments.output, "style.css")
+    data = (banners + minified).encode("utf-8")
+    write_variants(target, data)
+
+    print("style.css: %d -> %d bytes, %d selectors kept, %d removed"
+          % (os.path.getsize(SOURCE), len(data), kept, dropped))
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+#
+# Builds a class data sharing archive for the packaged application from a training run.
+#
+# CDS cannot archive classes loaded from jars nested in the Boot fat jar, so the jar is
+# unpacked and started with a plain class path. The training run starts the application in
+# the fast-start profile, requests the main pages so their classes get loaded, and stops it;
+# the JVM writes the archive on exit. Requires JDK 13+ and a reachable database.
+#
+# Usage: scripts/cds-train.sh [jar] [output-dir]
+# Start with: java -XX:SharedArchiveFile=<dir>/app.jsa -cp "$(cat <dir>/classpath)" <main class>
+
+set -euo pipefail
+
+JAR="${1:-$(ls target/*.jar | head -n 1)}"
+OUT="${2:-target/cds}"
+PORT="${PORT:-8090}"
+
+rm -rf "$OUT"
+mkdir -p "$OUT/app"
+JAR_PATH=$(realpath "$JAR")
+(cd "$OUT/app" && jar -xf "$JAR_PATH")
+
+MAIN_CLASS=$(awk -F': ' '/^Start-Class/ {print $2}' "$OUT/app/META-INF/MANIFEST.MF" | tr -d '\r')
+echo "$OUT/app/BOOT-INF/classes:$OUT/app/BOOT-INF/lib/*" > "$OUT/classpath"
+echo "$MAIN_CLASS" > "$OUT/main-class"
+
+java -XX:ArchiveClassesAtExit="$OUT/app.jsa" \
+    -Dspring.profiles.active=fast-start -Dserver.port="$PORT" \
+    -cp "$(cat "$OUT/classpath")" "$MAIN_CLASS" > "$OUT/training.log" 2>&1 &
+PID=$!
+
+until curl -s -o /dev/null "http://localhost:$PORT/login"; do
+    sleep 1
+done
+
+for url in / /login /register /article/1 /tag/java /forgot-password-input-email; do
+    curl -s -o /dev/null "http://localhost:$PORT$url" || true
+done
+
+kill "$PID"
+wait "$PID" 2>/dev/null || true
+
+echo "CDS archive written to $OUT/app.jsa ($(du -h "$OUT/app.jsa" | cut -f1))"
@@ -0,0 +1,43 @@
+package blog.cache;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The state of an article after a committed write, used to keep the in-memory article indexes
+ * current. A change describes what the article looks like now rather than what was modified, so
+ * applying the same change twice, or an older one after a rebuild, leaves an index correct.
+ * A deleted article has no category.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ArticleChange {
+
+    private final Integer articleId;
+
+    private final String title;
+
+    private final String category;
+
+    private final Set<String> tags;
+
+    public static ArticleChange saved(Integer articleId, String title, String category, Collection<String> tags) {
+        return new ArticleChange(articleId, title, category, Collections.unmodifiableSet(new LinkedHashSet<>(tags)));
+    }
+
+    public static ArticleChange deleted(Integer articleId) {
+        return new ArticleChange(articleId, null, null, Collections.emptySet());
+    }
+
+    public boolean isDeleted() {
+        return this.category == null;
+    }
+}
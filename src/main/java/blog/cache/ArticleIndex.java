@@ -0,0 +1,14 @@
+package blog.cache;
+
+import java.util.Collection;
+
+/**
+ * An in-memory structure derived from the articles table. Committed writes are applied through
+ * {@link #articleChanged}; {@link #rebuild} replaces the whole structure with one built from the
+ * given articles and should only hold locks that {@code articleChanged} needs while swapping it in.
+ */
+public interface ArticleIndex {
+    void articleChanged(ArticleChange change);
+
+    void rebuild(Collection<ArticleChange> articles);
+}
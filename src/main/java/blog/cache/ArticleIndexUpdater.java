@@ -0,0 +1,163 @@
+package blog.cache;
+
+import blog.repository.ArticleIndexRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every {@link ArticleIndex} in line with committed article writes. Local events carry an
+ * {@link ArticleChange}; for events from other nodes the changed article is read back by id, so
+ * every node updates its indexes incrementally. Only an event without an id, such as a bulk
+ * import, marks the indexes stale for a full rebuild.
+ *
+ * <p>A rebuild reads all articles once for every index and lets each index build its new state
+ * off its lock. Changes applied while it runs are replayed afterwards, since the rebuilt state
+ * may or may not include them; changes describe the current state of an article, so replaying
+ * one twice is harmless.
+ */
+@Slf4j
+@Component
+public class ArticleIndexUpdater implements CacheInvalidationListener {
+
+    private final List<ArticleIndex> indexes;
+
+    private final ArticleIndexRepository articleIndexRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Object rebuildLock = new Object();
+
+    private List<ArticleChange> replay;
+
+    private volatile boolean stale;
+
+    public ArticleIndexUpdater(ObjectProvider<ArticleIndex> indexes,
+                               ArticleIndexRepository articleIndexRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.indexes = indexes.orderedStream().collect(Collectors.toList());
+        this.articleIndexRepository = articleIndexRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void invalidate(DomainChangeEvent event, boolean remote) {
+        if (event.getEntityType() != EntityType.ARTICLE) {
+            return;
+        }
+
+        ArticleChange change = event.getArticleChange();
+
+        if (change == null && event.getEntityId() != null) {
+            change = this.load(event.getEntityId());
+        }
+
+        if (change == null) {
+            this.stale = true;
+            return;
+        }
+
+        this.apply(change);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this.rebuildLock) {
+            synchronized (this) {
+                this.replay = new ArrayList<>();
+            }
+
+            try {
+                List<ArticleChange> articles = this.loadAll();
+
+                for (ArticleIndex index : this.indexes) {
+                    index.rebuild(articles);
+                }
+            } finally {
+                synchronized (this) {
+                    List<ArticleChange> changes = this.replay;
+                    this.replay = null;
+                    changes.forEach(this::applyToIndexes);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.articles.index-rebuild-ms:5000}")
+    public void rebuildIfStale() {
+        if (this.stale) {
+            this.stale = false;
+            this.rebuild();
+        }
+    }
+
+    private synchronized void apply(ArticleChange change) {
+        this.applyToIndexes(change);
+
+        if (this.replay != null) {
+            this.replay.add(change);
+        }
+    }
+
+    private void applyToIndexes(ArticleChange change) {
+        for (ArticleIndex index : this.indexes) {
+            try {
+                index.articleChanged(change);
+            } catch (RuntimeException e) {
+                log.warn("Applying {} to {} failed, rebuilding it", change, index.getClass().getSimpleName(), e);
+                this.stale = true;
+            }
+        }
+    }
+
+    private ArticleChange load(Integer articleId) {
+        try {
+            List<Object[]> rows = this.readOnlyTransaction.execute(status -> this.articleIndexRepository.findArticleTagRows(articleId));
+            Collection<ArticleChange> articles = toChanges(rows);
+
+            return articles.isEmpty() ? ArticleChange.deleted(articleId) : articles.iterator().next();
+        } catch (RuntimeException e) {
+            log.warn("Loading article {} for the article indexes failed, rebuilding them", articleId, e);
+            return null;
+        }
+    }
+
+    private List<ArticleChange> loadAll() {
+        List<Object[]> rows = this.readOnlyTransaction.execute(status -> this.articleIndexRepository.findArticleTagRows());
+        return new ArrayList<>(toChanges(rows));
+    }
+
+    private static Collection<ArticleChange> toChanges(List<Object[]> rows) {
+        Map<Integer, Object[]> articles = new LinkedHashMap<>();
+        Map<Integer, List<String>> tags = new LinkedHashMap<>();
+
+        for (Object[] row : rows) {
+            Integer articleId = (Integer) row[0];
+            articles.putIfAbsent(articleId, row);
+            List<String> articleTags = tags.computeIfAbsent(articleId, id -> new ArrayList<>());
+
+            if (row[3] != null) {
+                articleTags.add((String) row[3]);
+            }
+        }
+
+        List<ArticleChange> changes = new ArrayList<>(articles.size());
+        articles.forEach((articleId, row) ->
+            changes.add(ArticleChange.saved(articleId, (String) row[1], (String) row[2], tags.get(articleId))));
+
+        return changes;
+    }
+}
@@ -0,0 +1,86 @@
+package blog.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Receives {@link DomainChangeEvent}s published by the services once their write has committed,
+ * invalidates this node's caches and forwards the event to the other nodes. Events from other
+ * nodes invalidate the same entries here.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final CacheInvalidationTransport transport;
+
+    private final List<CacheInvalidationListener> listeners;
+
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport,
+                                ObjectProvider<CacheInvalidationListener> listeners,
+                                ObjectProvider<CacheManager> cacheManager) {
+        this.transport = transport;
+        this.listeners = listeners.orderedStream().collect(Collectors.toList());
+        this.cacheManager = cacheManager.getIfAvailable();
+    }
+
+    public String getNode() {
+        return this.node;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        this.transport.subscribe(this.node, event -> this.invalidate(event, true));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDomainChange(DomainChangeEvent event) {
+        DomainChangeEvent local = event.from(this.node);
+
+        this.invalidate(local, false);
+
+        // The write has committed; a transport failure must not turn it into an error response.
+        try {
+            this.transport.publish(local);
+        } catch (RuntimeException e) {
+            log.warn("Publishing {} to other nodes failed", local, e);
+        }
+    }
+
+    private void invalidate(DomainChangeEvent event, boolean remote) {
+        if (this.cacheManager != null) {
+            Cache cache = this.cacheManager.getCache(event.getEntityType().name().toLowerCase(Locale.ROOT) + "s");
+
+            if (cache != null) {
+                if (event.getEntityId() == null) {
+                    cache.clear();
+                } else {
+                    cache.evict(event.getEntityId());
+                }
+            }
+        }
+
+        for (CacheInvalidationListener listener : this.listeners) {
+            try {
+                listener.invalidate(event, remote);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation failed for {}", event, e);
+            }
+        }
+    }
+}
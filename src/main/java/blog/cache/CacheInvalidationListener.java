@@ -0,0 +1,5 @@
+package blog.cache;
+
+public interface CacheInvalidationListener {
+    void invalidate(DomainChangeEvent event, boolean remote);
+}
@@ -0,0 +1,13 @@
+package blog.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries change events between nodes. Implementations deliver an event to every subscribed
+ * node except the one it originated from, which has already invalidated its own caches.
+ */
+public interface CacheInvalidationTransport {
+    void publish(DomainChangeEvent event);
+
+    void subscribe(String node, Consumer<DomainChangeEvent> consumer);
+}
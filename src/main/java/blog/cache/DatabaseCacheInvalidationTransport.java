@@ -0,0 +1,123 @@
+package blog.cache;
+
+import blog.entity.CacheInvalidationEvent;
+import blog.repository.CacheInvalidationEventRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Appends events to the cache_invalidation_events table and polls it for events written by other
+ * nodes, so an invalidation reaches every node within one poll interval. Events are written in
+ * their own transaction because publishing happens after the caller's transaction has committed.
+ * Identity ids are allocated before commit, so a row can become visible after a higher id has
+ * already been read; every id skipped that way is remembered and looked up again on each poll
+ * until it shows up or the gap timeout says it was rolled back. Old rows are purged after the
+ * retention period.
+ */
+public class DatabaseCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int MAX_GAP = 1000;
+
+    private final CacheInvalidationEventRepository eventRepository;
+
+    private final TransactionTemplate requiresNewTransaction;
+
+    private final Duration retention;
+
+    private final Duration gapTimeout;
+
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private volatile String node;
+
+    private volatile Consumer<DomainChangeEvent> consumer;
+
+    private long lastSeenId;
+
+    public DatabaseCacheInvalidationTransport(CacheInvalidationEventRepository eventRepository,
+                                              PlatformTransactionManager transactionManager,
+                                              Duration retention,
+                                              Duration gapTimeout) {
+        this.eventRepository = eventRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+    }
+
+    @Override
+    public void publish(DomainChangeEvent event) {
+        this.requiresNewTransaction.executeWithoutResult(status -> this.eventRepository.save(CacheInvalidationEvent
+            .builder()
+            .entityType(event.getEntityType())
+            .entityId(event.getEntityId())
+            .originNode(event.getOriginNode())
+            .created(Instant.now())
+            .build()));
+    }
+
+    @Override
+    public void subscribe(String node, Consumer<DomainChangeEvent> consumer) {
+        this.lastSeenId = this.eventRepository.findLatestId();
+        this.node = node;
+        this.consumer = consumer;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.cache.poll-ms:1000}")
+    public synchronized void poll() {
+        if (this.consumer == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (!this.gaps.isEmpty()) {
+            for (CacheInvalidationEvent event : this.eventRepository.findByIdIn(new ArrayList<>(this.gaps.keySet()))) {
+                this.gaps.remove(event.getId());
+                this.deliver(event);
+            }
+
+            this.gaps.values().removeIf(noticed -> now - noticed > this.gapTimeout.toMillis());
+        }
+
+        List<CacheInvalidationEvent> events;
+
+        do {
+            events = this.eventRepository.findTop500ByIdGreaterThanOrderByIdAsc(this.lastSeenId);
+
+            for (CacheInvalidationEvent event : events) {
+                long skipped = event.getId() - this.lastSeenId - 1;
+
+                for (long id = event.getId() - Math.min(skipped, MAX_GAP); id < event.getId(); id++) {
+                    this.gaps.put(id, now);
+                }
+
+                this.lastSeenId = event.getId();
+                this.deliver(event);
+            }
+        } while (events.size() == BATCH_SIZE);
+    }
+
+    private void deliver(CacheInvalidationEvent event) {
+        if (!event.getOriginNode().equals(this.node)) {
+            this.consumer.accept(new DomainChangeEvent(event.getEntityType(), event.getEntityId(), event.getOriginNode(), null));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.cache.purge-ms:600000}")
+    public void purge() {
+        this.eventRepository.deleteCreatedBefore(Instant.now().minus(this.retention));
+    }
+}
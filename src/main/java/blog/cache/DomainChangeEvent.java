@@ -0,0 +1,31 @@
+package blog.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class DomainChangeEvent {
+
+    private final EntityType entityType;
+
+    private final Integer entityId;
+
+    private final String originNode;
+
+    private final ArticleChange articleChange;
+
+    public static DomainChangeEvent of(EntityType entityType, Integer entityId) {
+        return new DomainChangeEvent(entityType, entityId, null, null);
+    }
+
+    public static DomainChangeEvent of(ArticleChange articleChange) {
+        return new DomainChangeEvent(EntityType.ARTICLE, articleChange.getArticleId(), null, articleChange);
+    }
+
+    public DomainChangeEvent from(String node) {
+        return new DomainChangeEvent(this.entityType, this.entityId, node, this.articleChange);
+    }
+}
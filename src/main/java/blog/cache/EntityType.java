@@ -0,0 +1,6 @@
+package blog.cache;
+
+public enum EntityType {
+    ARTICLE,
+    USER
+}
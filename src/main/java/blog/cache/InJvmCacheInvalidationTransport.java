@@ -0,0 +1,39 @@
+package blog.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events synchronously to every application context running in the same JVM.
+ */
+public class InJvmCacheInvalidationTransport implements CacheInvalidationTransport, DisposableBean {
+
+    private static final Map<String, Consumer<DomainChangeEvent>> SUBSCRIBERS = new ConcurrentHashMap<>();
+
+    private String node;
+
+    @Override
+    public void publish(DomainChangeEvent event) {
+        SUBSCRIBERS.forEach((subscriber, consumer) -> {
+            if (!subscriber.equals(event.getOriginNode())) {
+                consumer.accept(event);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(String node, Consumer<DomainChangeEvent> consumer) {
+        this.node = node;
+        SUBSCRIBERS.put(node, consumer);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.node != null) {
+            SUBSCRIBERS.remove(this.node);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package blog.config;
+
+import blog.cache.CacheInvalidationTransport;
+import blog.cache.DatabaseCacheInvalidationTransport;
+import blog.cache.InJvmCacheInvalidationTransport;
+import blog.repository.CacheInvalidationEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "blog.cache.transport", havingValue = "in-jvm", matchIfMissing = true)
+    public CacheInvalidationTransport inJvmCacheInvalidationTransport() {
+        return new InJvmCacheInvalidationTransport();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "blog.cache.transport", havingValue = "database")
+    public CacheInvalidationTransport databaseCacheInvalidationTransport(
+            CacheInvalidationEventRepository eventRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${blog.cache.retention-minutes:60}") long retentionMinutes,
+            @Value("${blog.cache.gap-timeout-ms:60000}") long gapTimeoutMillis) {
+        return new DatabaseCacheInvalidationTransport(eventRepository, transactionManager,
+            Duration.ofMinutes(retentionMinutes), Duration.ofMillis(gapTimeoutMillis));
+    }
+}
@@ -0,0 +1,77 @@
+package blog.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Listens for JFR {@code jdk.VirtualThreadPinned} events while the virtual-thread mode is on and
+ * logs the blocking stack, so synchronized sections in JDBC, mail or security code that pin a
+ * carrier thread show up in the application log.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "blog.threads.virtual", havingValue = "true")
+public class PinnedThreadMonitor implements DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+
+    private final AtomicLong pinnedCount = new AtomicLong();
+
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(@Value("${blog.threads.pinned-threshold-ms:20}") long thresholdMillis) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start(){
+        this.stream = new RecordingStream();
+        this.stream.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+        this.stream.onEvent(PINNED_EVENT, this::report);
+        this.stream.startAsync();
+    }
+
+    public long getPinnedCount(){
+        return this.pinnedCount.get();
+    }
+
+    @Override
+    public void destroy(){
+        if(this.stream != null){
+            this.stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event){
+        this.pinnedCount.incrementAndGet();
+
+        List<RecordedFrame> frames = event.getStackTrace() == null
+            ? List.of()
+            : event.getStackTrace().getFrames();
+
+        String stack = frames.stream()
+            .limit(LOGGED_FRAMES)
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+            .collect(Collectors.joining("\n\tat "));
+
+        log.warn("Virtual thread pinned its carrier for {} ms\n\tat {}", event.getDuration().toMillis(), stack);
+    }
+}
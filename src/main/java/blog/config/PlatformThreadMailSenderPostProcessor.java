@@ -0,0 +1,73 @@
+package blog.config;
+
+import blog.service.MailSenderService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link MailSenderService} calls on a small pool of platform threads. JavaMail holds
+ * monitors around its socket I/O, which pins a virtual thread to its carrier until JDK 24; the
+ * calling virtual thread instead waits on a future, which unmounts it. Mail is rare, so a few
+ * threads are enough and bound the number of concurrent SMTP connections as well.
+ */
+public class PlatformThreadMailSenderPostProcessor implements BeanPostProcessor, DisposableBean {
+
+    private final ExecutorService executor;
+
+    PlatformThreadMailSenderPostProcessor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mail-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof MailSenderService)) {
+            return bean;
+        }
+
+        return Proxy.newProxyInstance(
+            MailSenderService.class.getClassLoader(),
+            new Class<?>[]{MailSenderService.class},
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return method.invoke(bean, args);
+                }
+
+                try {
+                    return this.executor.submit(() -> {
+                        try {
+                            return method.invoke(bean, args);
+                        } catch (InvocationTargetException e) {
+                            throw rethrowable(e.getCause());
+                        }
+                    }).get();
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdown();
+    }
+
+    private static Exception rethrowable(Throwable cause) {
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        throw (Error) cause;
+    }
+}
@@ -0,0 +1,34 @@
+package blog.config;
+
+import blog.cache.ArticleIndexUpdater;
+import blog.ratelimit.RateLimiter;
+import blog.service.TagPopularityService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.web.SecurityFilterChain;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Beans that stay eager when {@code spring.main.lazy-initialization} is on: everything the first
+ * request needs, plus beans with scheduled methods, which are only registered once created.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            DataSource.class,
+            EntityManagerFactory.class,
+            SecurityFilterChain.class,
+            SpringTemplateEngine.class,
+            RateLimiter.class,
+            TagPopularityService.class,
+            ArticleIndexUpdater.class
+        );
+    }
+}
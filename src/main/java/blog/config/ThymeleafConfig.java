@@ -0,0 +1,16 @@
+package blog.config;
+
+import blog.thymeleaf.WhitespaceMinifyingDialect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ThymeleafConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "blog.rendering.minify-html", havingValue = "true")
+    public WhitespaceMinifyingDialect whitespaceMinifyingDialect() {
+        return new WhitespaceMinifyingDialect();
+    }
+}
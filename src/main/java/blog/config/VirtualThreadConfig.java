@@ -0,0 +1,52 @@
+package blog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling and the application task executor on virtual threads when
+ * {@code blog.threads.virtual=true}. Compiling needs JDK 14 or newer for the JFR event stream used
+ * by {@link PinnedThreadMonitor}; the executor is looked up reflectively so the build does not have
+ * to target JDK 21, and enabling the mode on a JDK without virtual threads fails at startup.
+ * Mail is sent on platform threads, see {@link PlatformThreadMailSenderPostProcessor}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() throws ReflectiveOperationException {
+        return (ExecutorService) Executors.class
+            .getMethod("newVirtualThreadPerTaskExecutor")
+            .invoke(null);
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean(name = {
+        TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    @Bean
+    public static PlatformThreadMailSenderPostProcessor platformThreadMailSenderPostProcessor(
+            @Value("${blog.threads.mail-platform-threads:4}") int threads) {
+        return new PlatformThreadMailSenderPostProcessor(threads);
+    }
+}
@@ -0,0 +1,97 @@
+package blog.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the stylesheet built by scripts/build-assets.py under a content-hashed name, e.g.
+ * {@code /css/style-<md5>.css}. Links written with {@code @{/css/style.css}} are rewritten by
+ * {@link ResourceUrlEncodingFilter}, and the precompressed .br/.gz variants are sent as-is when
+ * the client accepts them. Only the URL carrying the current fingerprint is cached as immutable;
+ * the plain URL must be revalidated so it never outlives a deploy.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.assets.fingerprint", havingValue = "true")
+public class WebResourceConfig implements WebMvcConfigurer {
+
+    private static final String CSS_PATTERN = "/css/**";
+
+    private final ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+    public WebResourceConfig(ObjectProvider<ResourceUrlProvider> resourceUrlProvider) {
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(CSS_PATTERN)
+            .addResourceLocations("classpath:/static/css/")
+            .resourceChain(true)
+            .addResolver(new EncodedResourceResolver())
+            .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new FingerprintCacheInterceptor(this.resourceUrlProvider)).addPathPatterns(CSS_PATTERN);
+    }
+
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    private static class FingerprintCacheInterceptor implements HandlerInterceptor {
+
+        private static final Pattern CONTENT_VERSION = Pattern.compile("-[0-9a-f]{32}(\\.[^./]+)$");
+
+        private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+        private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+        private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+        private final ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+        private FingerprintCacheInterceptor(ObjectProvider<ResourceUrlProvider> resourceUrlProvider) {
+            this.resourceUrlProvider = resourceUrlProvider;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, this.isCurrentFingerprint(request) ? IMMUTABLE : REVALIDATE);
+            return true;
+        }
+
+        private boolean isCurrentFingerprint(HttpServletRequest request) {
+            String lookupPath = this.urlPathHelper.getLookupPathForRequest(request);
+            Matcher version = CONTENT_VERSION.matcher(lookupPath);
+
+            if (!version.find()) {
+                return false;
+            }
+
+            String plainPath = lookupPath.substring(0, version.start()) + version.group(1);
+            return lookupPath.equals(this.resourceUrlProvider.getObject().getForLookupPath(plainPath));
+        }
+    }
+}
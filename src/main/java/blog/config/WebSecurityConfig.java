@@ -1,6 +1,9 @@
 package blog.config;
 
 import blog.security.Role;
+import blog.security.SignedCookieRefreshFilter;
+import blog.security.SignedCookieSecurityContextRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.context.annotation.Bean;
@@ -10,9 +13,13 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.CookieRequestCache;
 
 @Configuration
 @EnableGlobalMethodSecurity(prePostEnabled = true)
@@ -22,10 +29,13 @@ public class WebSecurityConfig {
 
     private final UserDetailsService userDetailsService;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final SignedCookieSecurityContextRepository cookieSecurityContextRepository;
 
-    public WebSecurityConfig(UserDetailsService userDetailsService) {
+    public WebSecurityConfig(UserDetailsService userDetailsService,
+                             ObjectProvider<SignedCookieSecurityContextRepository> cookieSecurityContextRepository) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = new BCryptPasswordEncoder();
+        this.cookieSecurityContextRepository = cookieSecurityContextRepository.getIfAvailable();
     }
 
     @Autowired
@@ -52,6 +62,23 @@ public class WebSecurityConfig {
                 .exceptionHandling().accessDeniedPage("/error/403")
                 .and()
                 .csrf();
+
+        if (cookieSecurityContextRepository != null) {
+            http.securityContext()
+                    .securityContextRepository(cookieSecurityContextRepository)
+                    .requireExplicitSave(true)
+                    .and()
+                    .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                    .and()
+                    .requestCache().requestCache(new CookieRequestCache())
+                    .and()
+                    .csrf().csrfTokenRepository(new CookieCsrfTokenRepository())
+                    .and()
+                    .logout().deleteCookies(SignedCookieSecurityContextRepository.AUTH_COOKIE)
+                    .and()
+                    .addFilterAfter(new SignedCookieRefreshFilter(cookieSecurityContextRepository), SecurityContextHolderFilter.class);
+        }
+
         return http.build();
     }
 
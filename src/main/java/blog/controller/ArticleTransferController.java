@@ -0,0 +1,41 @@
+package blog.controller;
+
+import blog.model.ImportReport;
+import blog.service.ArticleTransferService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/admin/articles")
+@AllArgsConstructor
+public class ArticleTransferController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ArticleTransferService articleTransferService;
+
+    @PostMapping("/import")
+    public ImportReport importArticles(HttpServletRequest request) throws IOException {
+        return this.articleTransferService.importArticles(request.getInputStream());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportArticles(){
+        StreamingResponseBody body = this.articleTransferService::exportArticles;
+
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"articles.ndjson\"")
+            .body(body);
+    }
+}
@@ -0,0 +1,27 @@
+package blog.controller;
+
+import blog.model.MaintenanceReport;
+import blog.service.MaintenanceService;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/maintenance")
+@AllArgsConstructor
+public class MaintenanceController {
+
+    private final MaintenanceService maintenanceService;
+
+    @GetMapping
+    public MaintenanceReport lastReport(){
+        return this.maintenanceService.getLastReport();
+    }
+
+    @PostMapping
+    public MaintenanceReport run(){
+        return this.maintenanceService.runMaintenance();
+    }
+}
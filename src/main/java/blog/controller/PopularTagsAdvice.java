@@ -0,0 +1,26 @@
+package blog.controller;
+
+import blog.model.TagCount;
+import blog.service.TagPopularityService;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+import java.util.List;
+
+@ControllerAdvice
+@AllArgsConstructor
+public class PopularTagsAdvice {
+
+    private final TagPopularityService tagPopularityService;
+
+    @ModelAttribute("popularTags")
+    public List<TagCount> popularTags(){
+        return this.tagPopularityService.getPopularTags();
+    }
+
+    @ModelAttribute("trendingTags")
+    public List<TagCount> trendingTags(){
+        return this.tagPopularityService.getTrendingTags();
+    }
+}
@@ -0,0 +1,22 @@
+package blog.controller;
+
+import blog.ratelimit.RateLimitMetrics;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/rate-limits")
+@AllArgsConstructor
+public class RateLimitController {
+
+    private final RateLimitMetrics rateLimitMetrics;
+
+    @GetMapping
+    public Map<String, Long> metrics(){
+        return this.rateLimitMetrics.snapshot();
+    }
+}
@@ -0,0 +1,6 @@
+package blog.datasource;
+
+public enum DataSourceType {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,73 @@
+package blog.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stands in for database replication when primary and replica are two local H2 databases. The
+ * primary is scripted with {@code SCRIPT} and replayed into the replica once at startup, after
+ * Hibernate has created the schema, and then every {@code blog.datasource.replica.sync-ms}, which
+ * also simulates replication lag. The replica is held in exclusive mode while it is replaced, so
+ * concurrent reads wait instead of seeing missing tables.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "blog.datasource.replica", name = "sync-ms")
+public class H2ReplicaSynchronizer {
+
+    private final DataSource primaryDataSource;
+
+    private final DataSource replicaDataSource;
+
+    public H2ReplicaSynchronizer(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${blog.datasource.replica.sync-ms}", fixedDelayString = "${blog.datasource.replica.sync-ms}")
+    public synchronized void synchronize() throws SQLException {
+        List<String> script = new ArrayList<>();
+
+        try (Connection primary = this.primaryDataSource.getConnection();
+             Statement statement = primary.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT NOSETTINGS")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+
+        try (Connection replica = this.replicaDataSource.getConnection();
+             Statement statement = replica.createStatement()) {
+            statement.execute("SET EXCLUSIVE 1");
+
+            try {
+                statement.execute("DROP ALL OBJECTS");
+
+                for (String sql : script) {
+                    if (!sql.startsWith("--") && !sql.startsWith("CREATE USER")) {
+                        statement.execute(sql);
+                    }
+                }
+            } finally {
+                statement.execute("SET EXCLUSIVE 0");
+            }
+        }
+
+        log.debug("Replica synchronized from primary ({} statements)", script.size());
+    }
+}
@@ -0,0 +1,78 @@
+package blog.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Pins a client to the primary for a while after it submitted a form, so a user who just
+ * edited something never reads a replica that has not caught up yet. Every write in the
+ * application goes through a POST handler, so the HTTP method is used as the write signal.
+ * The deadline travels in a cookie set before the handler runs, which works without an HTTP
+ * session and before the response is committed by a redirect.
+ */
+@Component
+@ConditionalOnProperty(prefix = "blog.datasource.replica", name = "url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String PRIMARY_UNTIL_COOKIE = "BLOG_PRIMARY_UNTIL";
+
+    private final long stickinessMillis;
+
+    public ReadYourWritesFilter(@Value("${blog.datasource.read-your-writes-ms:5000}") long stickinessMillis) {
+        this.stickinessMillis = stickinessMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+
+        if (write) {
+            this.writeCookie(request, response);
+        }
+
+        RoutingContext.setPrimaryForced(write || this.isSticky(request));
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+        }
+    }
+
+    private void writeCookie(HttpServletRequest request, HttpServletResponse response) {
+        long primaryUntil = System.currentTimeMillis() + this.stickinessMillis;
+        String contextPath = request.getContextPath();
+
+        Cookie cookie = new Cookie(PRIMARY_UNTIL_COOKIE, String.valueOf(primaryUntil));
+        cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+        cookie.setMaxAge((int) Math.max(1, (this.stickinessMillis + 999) / 1000));
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        response.addCookie(cookie);
+    }
+
+    private boolean isSticky(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, PRIMARY_UNTIL_COOKIE);
+
+        if (cookie == null) {
+            return false;
+        }
+
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package blog.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "blog.datasource.replica", name = "url")
+public class ReplicaReadAspect {
+
+    @Around("@annotation(blog.datasource.ReplicaRead)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = RoutingContext.setReplicaRequested(true);
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RoutingContext.setReplicaRequested(previous);
+        }
+    }
+}
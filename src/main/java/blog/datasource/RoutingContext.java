@@ -0,0 +1,34 @@
+package blog.datasource;
+
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> REPLICA_REQUESTED = ThreadLocal.withInitial(() -> false);
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> false);
+
+    private RoutingContext() {
+    }
+
+    public static boolean isReplicaRequested() {
+        return REPLICA_REQUESTED.get();
+    }
+
+    public static boolean setReplicaRequested(boolean requested) {
+        boolean previous = REPLICA_REQUESTED.get();
+        REPLICA_REQUESTED.set(requested);
+        return previous;
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+
+    public static void setPrimaryForced(boolean forced) {
+        PRIMARY_FORCED.set(forced);
+    }
+
+    public static void clear() {
+        REPLICA_REQUESTED.remove();
+        PRIMARY_FORCED.remove();
+    }
+}
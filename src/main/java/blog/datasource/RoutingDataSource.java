@@ -0,0 +1,16 @@
+package blog.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = RoutingContext.isReplicaRequested()
+            && !RoutingContext.isPrimaryForced()
+            && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        return replica ? DataSourceType.REPLICA : DataSourceType.PRIMARY;
+    }
+}
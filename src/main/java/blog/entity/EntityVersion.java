@@ -0,0 +1,27 @@
+package blog.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "entity_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityVersion {
+
+    @Id
+    @Column(length = 32)
+    private String entityKey;
+
+    @Column(nullable = false)
+    private Long version;
+}
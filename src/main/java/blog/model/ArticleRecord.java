@@ -0,0 +1,29 @@
+package blog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleRecord {
+
+    private Integer id;
+
+    private String title;
+
+    private String content;
+
+    private String authorEmail;
+
+    private String category;
+
+    private List<String> tags;
+
+    private String picture;
+}
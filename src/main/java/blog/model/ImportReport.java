@@ -0,0 +1,31 @@
+package blog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of an import. Skipped records lacked a known author, a known category, a title or
+ * content; failed ones were rejected by the database. An incomplete import stopped after
+ * {@code recordsRead} records because the next one could not be parsed, and can be resumed from
+ * there.
+ */
+@Getter
+@AllArgsConstructor
+public class ImportReport {
+
+    private final long imported;
+
+    private final long skipped;
+
+    private final long failed;
+
+    private final long recordsRead;
+
+    private final boolean complete;
+
+    private final long elapsedMillis;
+
+    public double getArticlesPerSecond() {
+        return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    }
+}
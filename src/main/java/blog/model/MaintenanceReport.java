@@ -0,0 +1,18 @@
+package blog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class MaintenanceReport {
+
+    private final Instant finished;
+
+    private final long deletedTags;
+
+    private final List<String> missingIndexes;
+}
@@ -0,0 +1,13 @@
+package blog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RelatedArticle {
+
+    private final Integer id;
+
+    private final String title;
+}
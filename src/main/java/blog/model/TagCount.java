@@ -0,0 +1,13 @@
+package blog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TagCount {
+
+    private final String name;
+
+    private final long count;
+}
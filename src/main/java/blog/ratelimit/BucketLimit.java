@@ -0,0 +1,21 @@
+package blog.ratelimit;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+public class BucketLimit {
+
+    private final long capacity;
+
+    private final double refillPerNano;
+
+    private final long fullRefillNanos;
+
+    public BucketLimit(long capacity, long refillTokens, TimeUnit refillPeriod) {
+        this.capacity = capacity;
+        this.refillPerNano = (double) refillTokens / refillPeriod.toNanos(1);
+        this.fullRefillNanos = (long) Math.ceil(capacity / this.refillPerNano);
+    }
+}
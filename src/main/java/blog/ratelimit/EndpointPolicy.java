@@ -0,0 +1,83 @@
+package blog.ratelimit;
+
+import lombok.Getter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static blog.util.StringUtils.SEND_AGAIN;
+
+/**
+ * The rate-limited POST endpoints. A path ending in {@code /} matches every path below it and
+ * the rest of the path, a user id, identifies the account; otherwise the {@code email} parameter
+ * does. A policy with a parameter only applies to requests that carry it.
+ */
+@Getter
+public enum EndpointPolicy {
+    LOGIN("/login", null,
+        new BucketLimit(20, 10, TimeUnit.MINUTES),
+        new BucketLimit(5, 1, TimeUnit.MINUTES)),
+    REGISTER("/register", null,
+        new BucketLimit(5, 5, TimeUnit.HOURS),
+        new BucketLimit(2, 2, TimeUnit.HOURS)),
+    RESET_MAIL("/forgot-password-input-email", null,
+        new BucketLimit(5, 5, TimeUnit.HOURS),
+        new BucketLimit(2, 3, TimeUnit.HOURS)),
+    RESEND_MAIL("/user/forgot-password/", SEND_AGAIN,
+        new BucketLimit(5, 5, TimeUnit.HOURS),
+        new BucketLimit(2, 3, TimeUnit.HOURS));
+
+    private static final String EMAIL = "email";
+
+    private static final String USER = "user";
+
+    private final String path;
+
+    private final String parameter;
+
+    private final BucketLimit ipLimit;
+
+    private final BucketLimit accountLimit;
+
+    EndpointPolicy(String path, String parameter, BucketLimit ipLimit, BucketLimit accountLimit) {
+        this.path = path;
+        this.parameter = parameter;
+        this.ipLimit = ipLimit;
+        this.accountLimit = accountLimit;
+    }
+
+    public static EndpointPolicy forRequest(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+
+        for (EndpointPolicy policy : values()) {
+            if (policy.matches(servletPath)
+                    && (policy.parameter == null || request.getParameter(policy.parameter) != null)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    public String accountDimension() {
+        return this.isPrefix() ? USER : EMAIL;
+    }
+
+    public String accountOf(HttpServletRequest request) {
+        String account = this.isPrefix()
+            ? request.getServletPath().substring(this.path.length())
+            : request.getParameter(EMAIL);
+
+        return account == null || account.trim().isEmpty() ? null : account.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean matches(String servletPath) {
+        return this.isPrefix()
+            ? servletPath.startsWith(this.path) && servletPath.length() > this.path.length()
+            : this.path.equals(servletPath);
+    }
+
+    private boolean isPrefix() {
+        return this.path.endsWith("/");
+    }
+}
@@ -0,0 +1,19 @@
+package blog.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RateLimitDecision {
+
+    public static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    private final boolean allowed;
+
+    private final long retryAfterNanos;
+
+    public static RateLimitDecision rejected(long retryAfterNanos) {
+        return new RateLimitDecision(false, retryAfterNanos);
+    }
+}
@@ -0,0 +1,66 @@
+package blog.ratelimit;
+
+import lombok.AllArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the endpoints that hash a password, insert a user or send a mail. Runs after the
+ * character encoding filter but ahead of the security filter chain, so a rejected login
+ * never reaches BCrypt. Client addresses come from {@code getRemoteAddr()}; behind a load
+ * balancer that only yields the client's address when forwarded headers from trusted proxies
+ * are applied ({@code server.forward-headers-strategy}), otherwise every client shares one
+ * bucket.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@AllArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    private final RateLimitMetrics metrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || EndpointPolicy.forRequest(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointPolicy policy = EndpointPolicy.forRequest(request);
+
+        RateLimitDecision decision = this.rateLimiter.tryAcquire(
+            policy.name() + ":ip:" + request.getRemoteAddr(), policy.getIpLimit());
+        this.metrics.record(policy, "ip", decision);
+
+        String account = policy.accountOf(request);
+
+        if (decision.isAllowed() && account != null) {
+            decision = this.rateLimiter.tryAcquire(
+                policy.name() + ":" + policy.accountDimension() + ":" + account, policy.getAccountLimit());
+            this.metrics.record(policy, policy.accountDimension(), decision);
+        }
+
+        if (!decision.isAllowed()) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.getRetryAfterNanos()));
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+}
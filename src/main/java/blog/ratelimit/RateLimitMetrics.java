@@ -0,0 +1,33 @@
+package blog.ratelimit;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@AllArgsConstructor
+public class RateLimitMetrics {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final RateLimiter rateLimiter;
+
+    public void record(EndpointPolicy policy, String dimension, RateLimitDecision decision) {
+        String outcome = decision.isAllowed() ? "allowed" : "rejected";
+        this.counters
+            .computeIfAbsent(policy.name().toLowerCase() + "." + dimension + "." + outcome, key -> new LongAdder())
+            .increment();
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        this.counters.forEach((key, counter) -> snapshot.put(key, counter.sum()));
+        snapshot.put("buckets", (long) this.rateLimiter.size());
+        snapshot.put("buckets.evicted", this.rateLimiter.getEvicted());
+        return snapshot;
+    }
+}
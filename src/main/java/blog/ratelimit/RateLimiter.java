@@ -0,0 +1,111 @@
+package blog.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds token buckets in a fixed number of shards. Each shard is capped and idle buckets are
+ * swept periodically. A full shard first drops its idle buckets and then, if that is not enough,
+ * the tenth of its buckets that have refilled the most, so a flood of new keys never locks out
+ * clients; throttled buckets are the last ones to go.
+ */
+@Component
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, TokenBucket>[] shards;
+
+    private final int maxBucketsPerShard;
+
+    private final LongAdder evicted = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(@Value("${blog.rate-limit.shards:16}") int shardCount,
+                       @Value("${blog.rate-limit.max-buckets:100000}") int maxBuckets) {
+        this.shards = new ConcurrentHashMap[Integer.highestOneBit(Math.max(1, shardCount))];
+        this.maxBucketsPerShard = Math.max(1, maxBuckets / this.shards.length);
+
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public RateLimitDecision tryAcquire(String key, BucketLimit limit) {
+        long now = System.nanoTime();
+        ConcurrentHashMap<String, TokenBucket> shard = this.shardFor(key);
+        TokenBucket bucket = shard.get(key);
+
+        if (bucket == null) {
+            if (shard.size() >= this.maxBucketsPerShard) {
+                this.makeRoom(shard, now);
+            }
+
+            bucket = shard.computeIfAbsent(key, k -> new TokenBucket(limit, now));
+        }
+
+        return bucket.tryConsume(now)
+            ? RateLimitDecision.ALLOWED
+            : RateLimitDecision.rejected(bucket.nanosUntilToken(now));
+    }
+
+    public long getEvicted() {
+        return this.evicted.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, TokenBucket> shard : this.shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.rate-limit.sweep-ms:30000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, TokenBucket> shard : this.shards) {
+            evictIdle(shard, now);
+        }
+    }
+
+    private ConcurrentHashMap<String, TokenBucket> shardFor(String key) {
+        int hash = key.hashCode();
+        return this.shards[(hash ^ (hash >>> 16)) & (this.shards.length - 1)];
+    }
+
+    private void makeRoom(ConcurrentHashMap<String, TokenBucket> shard, long now) {
+        synchronized (shard) {
+            if (shard.size() < this.maxBucketsPerShard) {
+                return;
+            }
+
+            evictIdle(shard, now);
+
+            if (shard.size() < this.maxBucketsPerShard) {
+                return;
+            }
+
+            int batch = Math.max(1, this.maxBucketsPerShard / 10);
+            List<Map.Entry<String, TokenBucket>> candidates = new ArrayList<>(shard.entrySet());
+            candidates.sort(Comparator.comparingDouble(
+                (Map.Entry<String, TokenBucket> entry) -> entry.getValue().fillRatio(now)).reversed());
+
+            for (Map.Entry<String, TokenBucket> entry : candidates.subList(0, Math.min(batch, candidates.size()))) {
+                if (shard.remove(entry.getKey(), entry.getValue())) {
+                    this.evicted.increment();
+                }
+            }
+        }
+    }
+
+    private static void evictIdle(ConcurrentHashMap<String, TokenBucket> shard, long now) {
+        shard.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+}
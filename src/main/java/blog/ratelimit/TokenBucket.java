@@ -0,0 +1,72 @@
+package blog.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket. Tokens and the last refill time are swapped together with a single
+ * compare-and-set, so concurrent requests for the same key never block each other.
+ */
+public class TokenBucket {
+
+    private final BucketLimit limit;
+
+    private final AtomicReference<State> state;
+
+    public TokenBucket(BucketLimit limit, long nowNanos) {
+        this.limit = limit;
+        this.state = new AtomicReference<>(new State(limit.getCapacity(), nowNanos));
+    }
+
+    public boolean tryConsume(long nowNanos) {
+        while (true) {
+            State current = this.state.get();
+            double tokens = this.refill(current, nowNanos);
+
+            if (tokens < 1) {
+                return false;
+            }
+
+            if (this.state.compareAndSet(current, new State(tokens - 1, Math.max(nowNanos, current.updatedNanos)))) {
+                return true;
+            }
+        }
+    }
+
+    public long nanosUntilToken(long nowNanos) {
+        double missing = 1 - this.refill(this.state.get(), nowNanos);
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / this.limit.getRefillPerNano());
+    }
+
+    /**
+     * An idle bucket has refilled completely, so dropping it and creating a fresh one later
+     * does not change what the caller is allowed to do.
+     */
+    public boolean isIdle(long nowNanos) {
+        return nowNanos - this.state.get().updatedNanos >= this.limit.getFullRefillNanos();
+    }
+
+    /**
+     * Share of the capacity available right now. Buckets closest to full are the cheapest to
+     * drop when a shard has to make room.
+     */
+    public double fillRatio(long nowNanos) {
+        return this.refill(this.state.get(), nowNanos) / this.limit.getCapacity();
+    }
+
+    private double refill(State current, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - current.updatedNanos);
+        return Math.min(this.limit.getCapacity(), current.tokens + elapsed * this.limit.getRefillPerNano());
+    }
+
+    private static final class State {
+
+        private final double tokens;
+
+        private final long updatedNanos;
+
+        private State(double tokens, long updatedNanos) {
+            this.tokens = tokens;
+            this.updatedNanos = updatedNanos;
+        }
+    }
+}
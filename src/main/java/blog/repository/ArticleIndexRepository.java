@@ -0,0 +1,21 @@
+package blog.repository;
+
+import blog.entity.Article;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * One row per article and tag (id, title, category name, tag name), with a {@code null} tag for
+ * untagged articles, as read by the in-memory article indexes.
+ */
+public interface ArticleIndexRepository extends Repository<Article, Integer> {
+
+    @Query("SELECT a.id, a.title, c.name, t.name FROM Article a JOIN a.category c LEFT JOIN a.tags t ORDER BY a.id")
+    List<Object[]> findArticleTagRows();
+
+    @Query("SELECT a.id, a.title, c.name, t.name FROM Article a JOIN a.category c LEFT JOIN a.tags t WHERE a.id = :id")
+    List<Object[]> findArticleTagRows(@Param("id") Integer id);
+}
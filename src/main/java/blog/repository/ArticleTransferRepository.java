@@ -0,0 +1,34 @@
+package blog.repository;
+
+import blog.entity.Article;
+import blog.entity.Category;
+import blog.entity.Tag;
+import blog.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArticleTransferRepository extends Repository<Article, Integer> {
+
+    @Query("SELECT a.id FROM Article a WHERE a.id > :afterId ORDER BY a.id")
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT a FROM Article a JOIN FETCH a.author JOIN FETCH a.category LEFT JOIN FETCH a.tags WHERE a.id IN :ids ORDER BY a.id")
+    List<Article> findWithAssociationsByIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT u FROM User u WHERE u.email IN :emails")
+    List<User> findUsersByEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT c FROM Category c WHERE c.name IN :names")
+    List<Category> findCategoriesByNames(@Param("names") Collection<String> names);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT t FROM Tag t WHERE t.name IN :names")
+    List<Tag> findTagsByNames(@Param("names") Collection<String> names);
+}
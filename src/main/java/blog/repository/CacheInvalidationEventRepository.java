@@ -0,0 +1,26 @@
+package blog.repository;
+
+import blog.entity.CacheInvalidationEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface CacheInvalidationEventRepository extends JpaRepository<CacheInvalidationEvent, Long> {
+    List<CacheInvalidationEvent> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    List<CacheInvalidationEvent> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM CacheInvalidationEvent e")
+    Long findLatestId();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CacheInvalidationEvent e WHERE e.created < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
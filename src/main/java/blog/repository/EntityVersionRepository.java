@@ -0,0 +1,16 @@
+package blog.repository;
+
+import blog.entity.EntityVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface EntityVersionRepository extends JpaRepository<EntityVersion, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EntityVersion v SET v.version = v.version + 1 WHERE v.entityKey = :key AND v.version = :expected")
+    int advance(@Param("key") String key, @Param("expected") Long expected);
+}
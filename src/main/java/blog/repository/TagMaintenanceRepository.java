@@ -0,0 +1,36 @@
+package blog.repository;
+
+import blog.entity.Tag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Orphan tag cleanup and the row locks that keep it from deleting a tag an article is about to
+ * use: writers take a shared lock on every tag they attach, the cleanup takes exclusive locks
+ * on its batch before re-checking that the tags are still unused.
+ */
+public interface TagMaintenanceRepository extends Repository<Tag, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT t FROM Tag t WHERE t.name = :name")
+    Tag findByNameForShare(@Param("name") String name);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Tag t WHERE t.id IN :ids")
+    List<Tag> lockByIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT t.id FROM Tag t WHERE t.articles IS EMPTY AND t.id > :afterId ORDER BY t.id")
+    List<Integer> findOrphanIdsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Tag t WHERE t.id IN :ids AND t.articles IS EMPTY")
+    int deleteOrphans(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,34 @@
+package blog.security;
+
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Runs right after the security context has been loaded and lets
+ * {@link SignedCookieSecurityContextRepository} re-issue or clear its cookie while the response
+ * can still take headers.
+ */
+public class SignedCookieRefreshFilter extends OncePerRequestFilter {
+
+    private final SignedCookieSecurityContextRepository repository;
+
+    public SignedCookieRefreshFilter(SignedCookieSecurityContextRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Resolves the context in case the repository's load was deferred.
+        SecurityContextHolder.getContext().getAuthentication();
+        this.repository.refreshCookie(request, response);
+
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,215 @@
+package blog.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.WebUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stores the compact {@link UserPrincipal} in an HMAC-signed cookie instead of the HTTP session,
+ * so any node holding the same secret can authenticate the request. A cookie whose user has since
+ * been deleted or changed email, roles or password is rejected through {@link UserAuthorityCache}. Once less
+ * than half of its lifetime is left the cookie is flagged for re-issue, which
+ * {@link SignedCookieRefreshFilter} does because {@code loadContext} may run without a response.
+ */
+@Component
+@ConditionalOnProperty(name = "blog.session.stateless", havingValue = "true")
+public class SignedCookieSecurityContextRepository implements SecurityContextRepository {
+
+    public static final String AUTH_COOKIE = "BLOG_AUTH";
+
+    private static final String REFRESH_ATTRIBUTE = SignedCookieSecurityContextRepository.class.getName() + ".REFRESH";
+
+    private static final String REVOKED_ATTRIBUTE = SignedCookieSecurityContextRepository.class.getName() + ".REVOKED";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final String SEPARATOR = "|";
+
+    private static final int FIELDS = 5;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    private final long ttlSeconds;
+
+    private final UserAuthorityCache userAuthorityCache;
+
+    public SignedCookieSecurityContextRepository(@Value("${blog.session.secret:}") String secret,
+                                                 @Value("${blog.session.ttl-seconds:86400}") long ttlSeconds,
+                                                 UserAuthorityCache userAuthorityCache) {
+        if (secret.length() < 32) {
+            throw new IllegalStateException("blog.session.secret must be at least 32 characters when blog.session.stateless is enabled");
+        }
+
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.userAuthorityCache = userAuthorityCache;
+    }
+
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder holder) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        Cookie cookie = WebUtils.getCookie(holder.getRequest(), AUTH_COOKIE);
+
+        if (cookie == null) {
+            return context;
+        }
+
+        String[] fields = this.verify(cookie.getValue());
+
+        if (fields == null) {
+            return context;
+        }
+
+        long expiresAt = Long.parseLong(fields[1]);
+        List<String> roles = fields[2].isEmpty()
+            ? Collections.emptyList()
+            : Arrays.asList(fields[2].split(","));
+        UserPrincipal principal = new UserPrincipal(Integer.valueOf(fields[0]), fields[4], null, roles, fields[3]);
+
+        if (!this.userAuthorityCache.isCurrent(principal)) {
+            holder.getRequest().setAttribute(REVOKED_ATTRIBUTE, Boolean.TRUE);
+            return context;
+        }
+
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        if (expiresAt - this.now() < this.ttlSeconds / 2) {
+            holder.getRequest().setAttribute(REFRESH_ATTRIBUTE, principal);
+        }
+
+        return context;
+    }
+
+    /**
+     * Re-issues a cookie flagged by {@link #loadContext} as half expired, or clears one that was
+     * revoked. Must run before the response is committed.
+     */
+    public void refreshCookie(HttpServletRequest request, HttpServletResponse response) {
+        Object principal = request.getAttribute(REFRESH_ATTRIBUTE);
+
+        if (principal instanceof UserPrincipal) {
+            request.removeAttribute(REFRESH_ATTRIBUTE);
+            this.writeCookie((UserPrincipal) principal, request, response);
+        } else if (request.getAttribute(REVOKED_ATTRIBUTE) != null) {
+            request.removeAttribute(REVOKED_ATTRIBUTE);
+            clearCookie(request, response);
+        }
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+
+        if (authentication == null
+                || authentication instanceof AnonymousAuthenticationToken
+                || !(authentication.getPrincipal() instanceof UserPrincipal)) {
+            if (this.containsContext(request)) {
+                clearCookie(request, response);
+            }
+            return;
+        }
+
+        this.writeCookie((UserPrincipal) authentication.getPrincipal(), request, response);
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, AUTH_COOKIE);
+        return cookie != null && this.verify(cookie.getValue()) != null;
+    }
+
+    public static void clearCookie(HttpServletRequest request, HttpServletResponse response) {
+        Cookie cookie = new Cookie(AUTH_COOKIE, "");
+        cookie.setPath(cookiePath(request));
+        cookie.setMaxAge(0);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        response.addCookie(cookie);
+    }
+
+    private void writeCookie(UserPrincipal principal, HttpServletRequest request, HttpServletResponse response) {
+        String payload = String.join(SEPARATOR,
+            String.valueOf(principal.getId()),
+            String.valueOf(this.now() + this.ttlSeconds),
+            String.join(",", principal.getRoles()),
+            String.valueOf(principal.getCredentialVersion()),
+            principal.getUsername());
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+
+        Cookie cookie = new Cookie(AUTH_COOKIE, encoded + "." + ENCODER.encodeToString(this.sign(encoded)));
+        cookie.setPath(cookiePath(request));
+        cookie.setMaxAge((int) this.ttlSeconds);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        response.addCookie(cookie);
+    }
+
+    private String[] verify(String value) {
+        int dot = value.indexOf('.');
+
+        if (dot <= 0) {
+            return null;
+        }
+
+        String encoded = value.substring(0, dot);
+        byte[] signature;
+        String[] fields;
+
+        try {
+            signature = DECODER.decode(value.substring(dot + 1));
+            fields = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split("\\|", FIELDS);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (!MessageDigest.isEqual(signature, this.sign(encoded)) || fields.length != FIELDS) {
+            return null;
+        }
+
+        return Long.parseLong(fields[1]) > this.now() ? fields : null;
+    }
+
+    private byte[] sign(String encoded) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(this.key);
+            return mac.doFinal(encoded.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static String cookiePath(HttpServletRequest request) {
+        String contextPath = request.getContextPath();
+        return contextPath.isEmpty() ? "/" : contextPath;
+    }
+}
@@ -0,0 +1,88 @@
+package blog.security;
+
+import blog.cache.CacheInvalidationListener;
+import blog.cache.DomainChangeEvent;
+import blog.cache.EntityType;
+import blog.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Current email, role names and credential version per user id, used to reject signed cookies
+ * that were issued before the user was deleted, renamed, given different roles or changed
+ * password. Entries are dropped on every
+ * user change event, so revocation takes effect on this node at commit and on other nodes with
+ * the next delivery of the cache invalidation transport.
+ */
+@Component
+@ConditionalOnProperty(name = "blog.session.stateless", havingValue = "true")
+public class UserAuthorityCache implements CacheInvalidationListener {
+
+    private final Map<Integer, Optional<UserPrincipal>> users = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final int maxEntries;
+
+    public UserAuthorityCache(UserRepository userRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${blog.session.authority-cache-size:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isCurrent(UserPrincipal principal) {
+        if (this.users.size() >= this.maxEntries) {
+            this.users.clear();
+        }
+
+        // Loading inside computeIfAbsent makes a concurrent invalidation wait for the load
+        // instead of being overwritten by it.
+        Optional<UserPrincipal> current = this.users.computeIfAbsent(principal.getId(), this::load);
+
+        return current
+            .filter(user -> Objects.equals(user.getUsername(), principal.getUsername()))
+            .filter(user -> Objects.equals(user.getCredentialVersion(), principal.getCredentialVersion()))
+            .filter(user -> user.getRoles().size() == principal.getRoles().size()
+                && user.getRoles().containsAll(principal.getRoles()))
+            .isPresent();
+    }
+
+    @Override
+    public void invalidate(DomainChangeEvent event, boolean remote) {
+        if (event.getEntityType() != EntityType.USER) {
+            return;
+        }
+
+        if (event.getEntityId() == null) {
+            this.users.clear();
+        } else {
+            this.users.remove(event.getEntityId());
+        }
+    }
+
+    private Optional<UserPrincipal> load(Integer id) {
+        return this.readOnlyTransaction.execute(status -> this.userRepository
+            .findById(id)
+            .map(user -> {
+                List<String> roles = user.getRoles().stream().map(role -> role.getName()).collect(Collectors.toList());
+                UserPrincipal current = new UserPrincipal(user.getId(), user.getEmail(), user.getPassword(), roles);
+                current.eraseCredentials();
+                return current;
+            }));
+    }
+}
@@ -1,36 +1,108 @@
 package blog.security;
 
 import blog.entity.User;
-import lombok.AllArgsConstructor;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
-@AllArgsConstructor
-public class UserPrincipal implements UserDetails {
+/**
+ * Keeps only what authorization needs: the user id, email and role names. The password hash is
+ * dropped once authentication has completed, so the session never holds the user entity; a short
+ * digest of it is kept as the credential version, which changes whenever the password does.
+ */
+public class UserPrincipal implements UserDetails, CredentialsContainer {
 
-    private final User user;
+    private static final long serialVersionUID = 1L;
+
+    private final Integer id;
+
+    private final String email;
+
+    private final List<String> roles;
+
+    private final String credentialVersion;
+
+    private String password;
+
+    public UserPrincipal(User user) {
+        this(
+            user.getId(),
+            user.getEmail(),
+            user.getPassword(),
+            user.getRoles().stream().map(role -> role.getName()).collect(Collectors.toList())
+        );
+    }
+
+    public UserPrincipal(Integer id, String email, String password, List<String> roles) {
+        this(id, email, password, roles, credentialVersion(password));
+    }
+
+    public UserPrincipal(Integer id, String email, String password, List<String> roles, String credentialVersion) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.roles = Collections.unmodifiableList(new ArrayList<>(roles));
+        this.credentialVersion = credentialVersion;
+    }
+
+    public static String credentialVersion(String passwordHash) {
+        if (passwordHash == null) {
+            return null;
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public String getCredentialVersion() {
+        return credentialVersion;
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user
-            .getRoles()
+        return roles
             .stream()
-            .map(role -> new SimpleGrantedAuthority(role.getName()))
+            .map(SimpleGrantedAuthority::new)
             .collect(Collectors.toList());
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
     }
 
     @Override
@@ -0,0 +1,13 @@
+package blog.service;
+
+import blog.model.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ArticleTransferService {
+    ImportReport importArticles(InputStream input) throws IOException;
+
+    long exportArticles(OutputStream output) throws IOException;
+}
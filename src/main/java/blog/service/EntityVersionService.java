@@ -0,0 +1,14 @@
+package blog.service;
+
+import blog.cache.EntityType;
+import org.springframework.ui.Model;
+
+public interface EntityVersionService {
+    String EDIT_VERSION = "editVersion";
+
+    long currentVersion(EntityType entityType, Integer id);
+
+    void addEditVersion(EntityType entityType, Integer id, Model model);
+
+    boolean advanceEdited(EntityType entityType, Integer id);
+}
@@ -0,0 +1,15 @@
+package blog.service;
+
+import blog.model.MaintenanceReport;
+
+import java.util.List;
+
+public interface MaintenanceService {
+    MaintenanceReport runMaintenance();
+
+    long deleteOrphanTags();
+
+    List<String> findMissingIndexes();
+
+    MaintenanceReport getLastReport();
+}
@@ -0,0 +1,9 @@
+package blog.service;
+
+import blog.model.RelatedArticle;
+
+import java.util.List;
+
+public interface RelatedArticlesService {
+    List<RelatedArticle> getRelatedArticles(Integer articleId);
+}
@@ -0,0 +1,13 @@
+package blog.service;
+
+import blog.model.TagCount;
+
+import java.util.List;
+
+public interface TagPopularityService {
+    List<TagCount> getPopularTags();
+
+    List<TagCount> getPopularTags(String categoryName);
+
+    List<TagCount> getTrendingTags();
+}
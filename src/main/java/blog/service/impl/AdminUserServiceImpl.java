@@ -1,16 +1,24 @@
 package blog.service.impl;
 
+import blog.cache.ArticleChange;
+import blog.cache.DomainChangeEvent;
+import blog.cache.EntityType;
+import blog.datasource.ReplicaRead;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import blog.model.UserEditModel;
+import blog.entity.Article;
 import blog.entity.Role;
 import blog.entity.User;
 import blog.repository.ArticleRepository;
 import blog.repository.RoleRepository;
 import blog.repository.UserRepository;
 import blog.service.AdminUserService;
+import blog.service.EntityVersionService;
 
 import java.text.MessageFormat;
 import java.util.LinkedList;
@@ -22,6 +30,8 @@ import static blog.util.StringUtils.*;
 @AllArgsConstructor
 public class AdminUserServiceImpl implements AdminUserService {
 
+    private static final String REDIRECT_ADMIN_USERS_EDIT_CONFLICT = "redirect:/admin/users/edit/{0}?conflict";
+
     private final UserRepository userRepository;
 
     private final ArticleRepository articleRepository;
@@ -30,7 +40,12 @@ public class AdminUserServiceImpl implements AdminUserService {
 
     private final BCryptPasswordEncoder passwordEncoder;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityVersionService entityVersionService;
+
     @Override
+    @ReplicaRead
     public String loadListUsersView(Model model){
         List<User> users = this.userRepository.findAll();
 
@@ -46,6 +61,8 @@ public class AdminUserServiceImpl implements AdminUserService {
             return REDIRECT_ADMIN_USERS;
         }
 
+        this.entityVersionService.addEditVersion(EntityType.USER, id, model);
+
         User user = this.userRepository.findById(id).orElseThrow(
             () -> new IllegalArgumentException(MessageFormat.format(INVALID_USER_ID, id))
         );
@@ -59,6 +76,7 @@ public class AdminUserServiceImpl implements AdminUserService {
     }
 
     @Override
+    @Transactional
     public String editUser(Integer id, UserEditModel userEditModel){
         if(!this.userRepository.existsById(id)){
             return REDIRECT_ADMIN_USERS;
@@ -68,6 +86,10 @@ public class AdminUserServiceImpl implements AdminUserService {
             () -> new IllegalArgumentException(MessageFormat.format(INVALID_USER_ID, id))
         );
 
+        if(!this.entityVersionService.advanceEdited(EntityType.USER, id)){
+            return MessageFormat.format(REDIRECT_ADMIN_USERS_EDIT_CONFLICT, id);
+        }
+
         String password = userEditModel.getPassword();
         String confirmPassword = userEditModel.getConfirmPassword();
 
@@ -92,10 +114,13 @@ public class AdminUserServiceImpl implements AdminUserService {
 
         this.userRepository.saveAndFlush(user);
 
+        this.eventPublisher.publishEvent(DomainChangeEvent.of(EntityType.USER, id));
+
         return REDIRECT_ADMIN_USERS;
     }
 
     @Override
+    @ReplicaRead
     public String loadUserDeleteView(Integer id, Model model){
         if(!this.userRepository.existsById(id)){
             return REDIRECT_ADMIN_USERS;
@@ -121,10 +146,17 @@ public class AdminUserServiceImpl implements AdminUserService {
             () -> new IllegalArgumentException(MessageFormat.format(INVALID_USER_ID, id))
         );
 
-        this.articleRepository.deleteAll(user.getArticles());
+        List<Article> articles = user.getArticles();
+
+        this.articleRepository.deleteAll(articles);
 
         this.userRepository.delete(user);
 
+        for (Article article : articles){
+            this.eventPublisher.publishEvent(DomainChangeEvent.of(ArticleChange.deleted(article.getId())));
+        }
+        this.eventPublisher.publishEvent(DomainChangeEvent.of(EntityType.USER, id));
+
         return REDIRECT_ADMIN_USERS;
     }
 }
@@ -1,11 +1,17 @@
 package blog.service.impl;
 
+import blog.cache.ArticleChange;
+import blog.cache.DomainChangeEvent;
+import blog.cache.EntityType;
+import blog.datasource.ReplicaRead;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import blog.model.ArticleModel;
 import blog.entity.Article;
@@ -14,15 +20,21 @@ import blog.entity.Tag;
 import blog.entity.User;
 import blog.repository.ArticleRepository;
 import blog.repository.CategoryRepository;
+import blog.repository.TagMaintenanceRepository;
 import blog.repository.TagRepository;
 import blog.repository.UserRepository;
 import blog.service.ArticleService;
+import blog.service.EntityVersionService;
+import blog.service.RelatedArticlesService;
 
+import javax.persistence.EntityManager;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static blog.util.StringUtils.*;
@@ -31,6 +43,10 @@ import static blog.util.StringUtils.*;
 @AllArgsConstructor
 public class ArticleServiceImpl implements ArticleService {
 
+    private static final String REDIRECT_ARTICLE_EDIT_CONFLICT = "redirect:/article/edit/{0}?conflict";
+
+    private static final String RELATED_ARTICLES = "relatedArticles";
+
     private final ArticleRepository articleRepository;
 
     private final UserRepository userRepository;
@@ -39,7 +55,18 @@ public class ArticleServiceImpl implements ArticleService {
 
     private final TagRepository tagRepository;
 
+    private final TagMaintenanceRepository tagMaintenanceRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityVersionService entityVersionService;
+
+    private final RelatedArticlesService relatedArticlesService;
+
+    private final EntityManager entityManager;
+
     @Override
+    @ReplicaRead
     public String loadCreateArticleView(Model model){
         List<Category> categories = this.categoryRepository.findAll();
 
@@ -50,6 +77,7 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
+    @Transactional
     public String createArticle(ArticleModel articleModel) throws IOException {
         UserDetails principal = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -84,10 +112,14 @@ public class ArticleServiceImpl implements ArticleService {
 
         this.articleRepository.saveAndFlush(articleEntity);
 
+        this.eventPublisher.publishEvent(DomainChangeEvent.of(ArticleChange.saved(
+            articleEntity.getId(), articleEntity.getTitle(), category.getName(), tagNames(tags))));
+
         return REDIRECT_HOME;
     }
 
     @Override
+    @ReplicaRead
     public String loadArticleDetailsView(Model model, Integer id){
         if(!this.articleRepository.existsById(id)){
             return REDIRECT_HOME;
@@ -110,6 +142,7 @@ public class ArticleServiceImpl implements ArticleService {
         );
 
         model.addAttribute(ARTICLE, article);
+        model.addAttribute(RELATED_ARTICLES, this.relatedArticlesService.getRelatedArticles(id));
         model.addAttribute(VIEW, ARTICLE_DETAILS);
 
         return BASE_LAYOUT;
@@ -129,6 +162,15 @@ public class ArticleServiceImpl implements ArticleService {
             return MessageFormat.format(REDIRECT_ARTICLES_ID, id);
         }
 
+        // The version is read only for an editor; the article is then loaded again so the form
+        // never shows content older than the version it carries.
+        this.entityVersionService.addEditVersion(EntityType.ARTICLE, id, model);
+        this.entityManager.detach(article);
+
+        article = this.articleRepository.findById(id).orElseThrow(
+                () -> new IllegalArgumentException(MessageFormat.format(INVALID_ARTICLE_ID, id))
+        );
+
         List<Category> categories = this.categoryRepository.findAll();
 
         String tagString = article.getTags().stream()
@@ -144,6 +186,7 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
+    @Transactional
     public String editArticle(Integer id, ArticleModel articleModel) throws IOException {
         if(!this.articleRepository.existsById(id)){
             return REDIRECT_HOME;
@@ -157,6 +200,10 @@ public class ArticleServiceImpl implements ArticleService {
             return MessageFormat.format(REDIRECT_ARTICLES_ID, id);
         }
 
+        if (!this.entityVersionService.advanceEdited(EntityType.ARTICLE, id)){
+            return MessageFormat.format(REDIRECT_ARTICLE_EDIT_CONFLICT, id);
+        }
+
         Category category = this.categoryRepository
                 .findById(articleModel.getCategoryId())
                 .orElseThrow(() -> new IllegalArgumentException(
@@ -178,10 +225,14 @@ public class ArticleServiceImpl implements ArticleService {
 
         this.articleRepository.saveAndFlush(article);
 
+        this.eventPublisher.publishEvent(DomainChangeEvent.of(ArticleChange.saved(
+            article.getId(), article.getTitle(), category.getName(), tagNames(tags))));
+
         return MessageFormat.format(REDIRECT_ARTICLES_ID, article.getId());
     }
 
     @Override
+    @ReplicaRead
     public String loadArticleDeleteView(Model model, Integer id){
         if(!this.articleRepository.existsById(id)){
             return REDIRECT_HOME;
@@ -217,6 +268,8 @@ public class ArticleServiceImpl implements ArticleService {
 
         this.articleRepository.delete(article);
 
+        this.eventPublisher.publishEvent(DomainChangeEvent.of(ArticleChange.deleted(id)));
+
         return REDIRECT_HOME;
     }
 
@@ -226,7 +279,7 @@ public class ArticleServiceImpl implements ArticleService {
         String[] tagNames = tagString.split(",\\s*");
 
         for (String tagName : tagNames){
-            Tag currentTag = this.tagRepository.findByName(tagName);
+            Tag currentTag = this.tagMaintenanceRepository.findByNameForShare(tagName);
 
             if(currentTag == null){
                 currentTag = Tag.builder().name(tagName).build();
@@ -238,6 +291,12 @@ public class ArticleServiceImpl implements ArticleService {
         return tags;
     }
 
+    private static Set<String> tagNames(List<Tag> tags){
+        return tags.stream()
+                .map(Tag::getName)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     private boolean neitherAuthorOrAdmin(Article article){
         UserDetails principal = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
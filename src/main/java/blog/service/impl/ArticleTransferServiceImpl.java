@@ -0,0 +1,332 @@
+package blog.service.impl;
+
+import blog.cache.DomainChangeEvent;
+import blog.cache.EntityType;
+import blog.entity.Article;
+import blog.entity.Category;
+import blog.entity.Tag;
+import blog.entity.User;
+import blog.model.ArticleRecord;
+import blog.model.ImportReport;
+import blog.repository.ArticleTransferRepository;
+import blog.service.ArticleTransferService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON in and out. Imports are parsed one record at a time and written in batches, each
+ * in its own transaction, with authors, categories and tags resolved by one query per batch.
+ * Exports page through article ids and fetch each page with its associations in a single query,
+ * clearing the persistence context afterwards so memory stays flat.
+ */
+@Slf4j
+@Service
+public class ArticleTransferServiceImpl implements ArticleTransferService {
+
+    private final ArticleTransferRepository articleTransferRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final int batchSize;
+
+    public ArticleTransferServiceImpl(ArticleTransferRepository articleTransferRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      EntityManager entityManager,
+                                      ObjectMapper objectMapper,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${blog.transfer.batch-size:500}") int batchSize) {
+        this.articleTransferRepository = articleTransferRepository;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportReport importArticles(InputStream input) throws IOException {
+        long started = System.currentTimeMillis();
+        ImportCounts counts = new ImportCounts();
+        boolean complete = true;
+
+        List<ArticleRecord> batch = new ArrayList<>(this.batchSize);
+
+        try (MappingIterator<ArticleRecord> records = this.objectMapper.readerFor(ArticleRecord.class).readValues(input)) {
+            while (records.hasNextValue()) {
+                batch.add(records.nextValue());
+                counts.read++;
+
+                if (batch.size() == this.batchSize) {
+                    this.importBatch(batch, counts);
+                    batch.clear();
+
+                    logProgress(counts, started);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // NDJSON offers no reliable way to resynchronise after a malformed record.
+            complete = false;
+            log.error("Article import stopped at record {}, which is not valid JSON", counts.read + 1, e);
+        }
+
+        if (!batch.isEmpty()) {
+            this.importBatch(batch, counts);
+        }
+
+        if (counts.imported > 0) {
+            this.eventPublisher.publishEvent(DomainChangeEvent.of(EntityType.ARTICLE, null));
+        }
+
+        ImportReport report = new ImportReport(counts.imported, counts.skipped, counts.failed, counts.read,
+            complete, System.currentTimeMillis() - started);
+        log.info("Article import {}: {} records read, {} imported, {} skipped, {} failed, {} articles/s",
+            complete ? "finished" : "stopped", report.getRecordsRead(), report.getImported(), report.getSkipped(),
+            report.getFailed(), Math.round(report.getArticlesPerSecond()));
+
+        return report;
+    }
+
+    @Override
+    public long exportArticles(OutputStream output) throws IOException {
+        SequenceWriter writer = this.objectMapper
+            .writerFor(ArticleRecord.class)
+            .withRootValueSeparator("\n")
+            .writeValues(output);
+
+        long exported = 0;
+        Integer afterId = 0;
+
+        while (true) {
+            List<ArticleRecord> page = this.exportPage(afterId);
+
+            if (page.isEmpty()) {
+                break;
+            }
+
+            writer.writeAll(page);
+            writer.flush();
+
+            exported += page.size();
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        if (exported > 0) {
+            output.write("\n".getBytes(StandardCharsets.UTF_8));
+            output.flush();
+        }
+
+        return exported;
+    }
+
+    /**
+     * Imports a batch in one transaction. If that fails, the batch is rolled back and its records
+     * are retried one by one, so a single bad record costs only itself.
+     */
+    private void importBatch(List<ArticleRecord> batch, ImportCounts counts) {
+        long first = counts.read - batch.size() + 1;
+
+        try {
+            counts.add(batch.size(), this.persistBatch(batch));
+            return;
+        } catch (RuntimeException e) {
+            this.entityManager.clear();
+            log.warn("Import of records {} to {} failed, retrying them one at a time", first, counts.read, e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                counts.add(1, this.persistBatch(Collections.singletonList(batch.get(i))));
+            } catch (RuntimeException e) {
+                this.entityManager.clear();
+                counts.failed++;
+                log.warn("Record {} could not be imported: {}", first + i, e.getMessage());
+            }
+        }
+    }
+
+    private int persistBatch(List<ArticleRecord> records) {
+        Integer imported = this.transactionTemplate.execute(status -> {
+            Map<String, User> authors = index(
+                this.articleTransferRepository.findUsersByEmails(collect(records, ArticleRecord::getAuthorEmail)),
+                User::getEmail
+            );
+            Map<String, Category> categories = index(
+                this.articleTransferRepository.findCategoriesByNames(collect(records, ArticleRecord::getCategory)),
+                Category::getName
+            );
+            Map<String, Tag> tags = this.resolveTags(records);
+
+            int persisted = 0;
+
+            for (ArticleRecord record : records) {
+                User author = authors.get(record.getAuthorEmail());
+                Category category = categories.get(record.getCategory());
+
+                if (author == null || category == null || record.getTitle() == null || record.getContent() == null) {
+                    continue;
+                }
+
+                List<Tag> articleTags = tagNames(record).stream()
+                    .map(tags::get)
+                    .collect(Collectors.toCollection(LinkedList::new));
+
+                Article article = Article
+                    .builder()
+                    .title(record.getTitle())
+                    .content(record.getContent())
+                    .author(author)
+                    .category(category)
+                    .tags(articleTags)
+                    .build();
+
+                if (record.getPicture() != null && !record.getPicture().isEmpty()) {
+                    article.setPicture(record.getPicture());
+                }
+
+                this.entityManager.persist(article);
+                persisted++;
+            }
+
+            this.entityManager.flush();
+            this.entityManager.clear();
+
+            return persisted;
+        });
+
+        return imported == null ? 0 : imported;
+    }
+
+    private Map<String, Tag> resolveTags(List<ArticleRecord> records) {
+        Set<String> names = new LinkedHashSet<>();
+        records.forEach(record -> names.addAll(tagNames(record)));
+
+        if (names.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Tag> tags = index(this.articleTransferRepository.findTagsByNames(names), Tag::getName);
+
+        for (String name : names) {
+            if (!tags.containsKey(name)) {
+                Tag tag = Tag.builder().name(name).build();
+                this.entityManager.persist(tag);
+                tags.put(name, tag);
+            }
+        }
+
+        return tags;
+    }
+
+    private List<ArticleRecord> exportPage(Integer afterId) {
+        List<ArticleRecord> page = this.readOnlyTransactionTemplate.execute(status -> {
+            List<Integer> ids = this.articleTransferRepository.findIdsAfter(afterId, PageRequest.of(0, this.batchSize));
+
+            if (ids.isEmpty()) {
+                return Collections.<ArticleRecord>emptyList();
+            }
+
+            List<ArticleRecord> records = this.articleTransferRepository.findWithAssociationsByIds(ids).stream()
+                .map(article -> new ArticleRecord(
+                    article.getId(),
+                    article.getTitle(),
+                    article.getContent(),
+                    article.getAuthor().getEmail(),
+                    article.getCategory().getName(),
+                    article.getTags().stream().map(Tag::getName).collect(Collectors.toList()),
+                    article.getPicture()
+                ))
+                .collect(Collectors.toList());
+
+            this.entityManager.clear();
+
+            return records;
+        });
+
+        return page == null ? Collections.emptyList() : page;
+    }
+
+    private static List<String> tagNames(ArticleRecord record) {
+        if (record.getTags() == null) {
+            return Collections.emptyList();
+        }
+
+        return record.getTags().stream()
+            .filter(Objects::nonNull)
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    private static Set<String> collect(Collection<ArticleRecord> records, Function<ArticleRecord, String> field) {
+        return records.stream()
+            .map(field)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    }
+
+    private static <T> Map<String, T> index(Collection<T> entities, Function<T, String> key) {
+        Map<String, T> index = new HashMap<>();
+        entities.forEach(entity -> index.put(key.apply(entity), entity));
+        return index;
+    }
+
+    private static void logProgress(ImportCounts counts, long started) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Article import progress: {} records read, {} imported, {} skipped, {} failed, {} articles/s",
+            counts.read, counts.imported, counts.skipped, counts.failed, counts.imported * 1000 / elapsed);
+    }
+
+    private static class ImportCounts {
+
+        private long read;
+
+        private long imported;
+
+        private long skipped;
+
+        private long failed;
+
+        private void add(int records, int persisted) {
+            this.imported += persisted;
+            this.skipped += records - persisted;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package blog.service.impl;
+
+import blog.cache.EntityType;
+import blog.entity.EntityVersion;
+import blog.repository.EntityVersionRepository;
+import blog.service.EntityVersionService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.ui.Model;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Optimistic concurrency for edit forms. Every editable entity has a row in entity_versions;
+ * the version current when the edit form was opened travels with the form as the
+ * {@value #EDIT_VERSION} parameter, and an edit only goes through if a conditional update can
+ * move the row from that version to the next one. A submission without a version is treated as
+ * a conflict. Callers read the version only after checking that the user may edit the entity,
+ * and then load the entity again, both on the primary, so the form never pairs older content with
+ * a newer version.
+ */
+@Service
+public class EntityVersionServiceImpl implements EntityVersionService {
+
+    private final EntityVersionRepository entityVersionRepository;
+
+    private final TransactionTemplate requiresNewTransaction;
+
+    public EntityVersionServiceImpl(EntityVersionRepository entityVersionRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.entityVersionRepository = entityVersionRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long currentVersion(EntityType entityType, Integer id){
+        String key = key(entityType, id);
+
+        try {
+            Long version = this.requiresNewTransaction.execute(status -> this.entityVersionRepository
+                .findById(key)
+                .orElseGet(() -> this.entityVersionRepository.saveAndFlush(new EntityVersion(key, 0L)))
+                .getVersion());
+            return version == null ? 0 : version;
+        } catch (DataIntegrityViolationException e) {
+            Long version = this.requiresNewTransaction.execute(status -> this.entityVersionRepository
+                .findById(key)
+                .map(EntityVersion::getVersion)
+                .orElse(0L));
+            return version == null ? 0 : version;
+        }
+    }
+
+    @Override
+    public void addEditVersion(EntityType entityType, Integer id, Model model){
+        model.addAttribute(EDIT_VERSION, this.currentVersion(entityType, id));
+    }
+
+    @Override
+    public boolean advanceEdited(EntityType entityType, Integer id){
+        Long expected = submittedVersion();
+
+        return expected != null && this.entityVersionRepository.advance(key(entityType, id), expected) == 1;
+    }
+
+    private static Long submittedVersion(){
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if(!(attributes instanceof ServletRequestAttributes)){
+            return null;
+        }
+
+        String version = ((ServletRequestAttributes) attributes).getRequest().getParameter(EDIT_VERSION);
+
+        try {
+            return version == null ? null : Long.valueOf(version.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String key(EntityType entityType, Integer id){
+        return entityType.name() + ":" + id;
+    }
+}
@@ -0,0 +1,207 @@
+package blog.service.impl;
+
+import blog.model.MaintenanceReport;
+import blog.repository.TagMaintenanceRepository;
+import blog.service.MaintenanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Background database housekeeping. Orphan tags are deleted a small batch at a time, each batch in
+ * its own short transaction, so the tags table is never locked for long. The index check reads
+ * the JDBC metadata and reports hot-query indexes that are missing, without creating anything.
+ */
+@Slf4j
+@Service
+public class MaintenanceServiceImpl implements MaintenanceService {
+
+    private final TagMaintenanceRepository tagMaintenanceRepository;
+
+    private final DataSource dataSource;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long batchPauseMillis;
+
+    private final List<String> requiredIndexes;
+
+    private volatile MaintenanceReport lastReport;
+
+    public MaintenanceServiceImpl(TagMaintenanceRepository tagMaintenanceRepository,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${blog.maintenance.batch-size:200}") int batchSize,
+                                  @Value("${blog.maintenance.batch-pause-ms:100}") long batchPauseMillis,
+                                  @Value("${blog.maintenance.required-indexes:users(email);tags(name);articles(category_id,created)}") String requiredIndexes) {
+        this.tagMaintenanceRepository = tagMaintenanceRepository;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+        this.requiredIndexes = Arrays.stream(requiredIndexes.split(";"))
+            .map(String::trim)
+            .filter(index -> !index.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Scheduled(cron = "${blog.maintenance.cron:0 30 3 * * *}")
+    public MaintenanceReport runMaintenance(){
+        long deletedTags = this.deleteOrphanTags();
+        List<String> missingIndexes = this.findMissingIndexes();
+
+        this.lastReport = new MaintenanceReport(Instant.now(), deletedTags, missingIndexes);
+
+        return this.lastReport;
+    }
+
+    @Override
+    public long deleteOrphanTags(){
+        long deleted = 0;
+        Integer afterId = 0;
+
+        while (true) {
+            List<Integer> ids = this.tagMaintenanceRepository.findOrphanIdsAfter(afterId, PageRequest.of(0, this.batchSize));
+
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // Locking first makes the delete wait for edits still attaching one of these tags;
+            // its own usage check then runs against their committed join rows.
+            Integer removed = this.transactionTemplate.execute(status -> {
+                this.tagMaintenanceRepository.lockByIds(ids);
+                return this.tagMaintenanceRepository.deleteOrphans(ids);
+            });
+            deleted += removed == null ? 0 : removed;
+            afterId = ids.get(ids.size() - 1);
+
+            if (!this.pause()) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Deleted {} orphan tags", deleted);
+        }
+
+        return deleted;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndexesOnStartup(){
+        this.lastReport = new MaintenanceReport(Instant.now(), 0, this.findMissingIndexes());
+    }
+
+    @Override
+    public List<String> findMissingIndexes(){
+        List<String> missing = new ArrayList<>();
+
+        try (Connection connection = this.dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+
+            for (String requiredIndex : this.requiredIndexes) {
+                String table = requiredIndex.substring(0, requiredIndex.indexOf('(')).trim();
+                List<String> columns = Arrays.stream(requiredIndex.substring(requiredIndex.indexOf('(') + 1, requiredIndex.indexOf(')')).split(","))
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toList());
+
+                if (!isCovered(metaData, connection.getCatalog(), connection.getSchema(), table, columns)) {
+                    String statement = "CREATE INDEX idx_" + table + "_" + String.join("_", columns)
+                        + " ON " + table + " (" + String.join(", ", columns) + ")";
+                    missing.add(statement);
+                    log.warn("Missing index for hot query on {}({}), suggested: {}", table, String.join(", ", columns), statement);
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read index metadata", e);
+        }
+
+        return missing;
+    }
+
+    @Override
+    public MaintenanceReport getLastReport(){
+        return this.lastReport;
+    }
+
+    private boolean pause(){
+        try {
+            Thread.sleep(this.batchPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean isCovered(DatabaseMetaData metaData, String catalog, String schema,
+                                     String table, List<String> columns) throws SQLException {
+        for (String candidate : Arrays.asList(table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT))) {
+            Map<String, Map<Short, String>> indexes = readIndexes(metaData, catalog, schema, candidate);
+
+            if (indexes.isEmpty()) {
+                continue;
+            }
+
+            for (Map<Short, String> index : indexes.values()) {
+                List<String> leading = new ArrayList<>(index.values());
+
+                if (leading.size() >= columns.size() && leading.subList(0, columns.size()).equals(columns)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        return false;
+    }
+
+    private static Map<String, Map<Short, String>> readIndexes(DatabaseMetaData metaData, String catalog,
+                                                               String schema, String table) throws SQLException {
+        Map<String, Map<Short, String>> indexes = new LinkedHashMap<>();
+
+        try (ResultSet resultSet = metaData.getIndexInfo(catalog, schema, table, false, true)) {
+            while (resultSet.next()) {
+                String indexName = resultSet.getString("INDEX_NAME");
+                String column = resultSet.getString("COLUMN_NAME");
+
+                if (indexName == null || column == null) {
+                    continue;
+                }
+
+                indexes
+                    .computeIfAbsent(indexName, name -> new TreeMap<>())
+                    .put(resultSet.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return indexes.isEmpty() ? Collections.emptyMap() : indexes;
+    }
+}
@@ -0,0 +1,290 @@
+package blog.service.impl;
+
+import blog.cache.ArticleChange;
+import blog.cache.ArticleIndex;
+import blog.model.RelatedArticle;
+import blog.service.RelatedArticlesService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps an inverted tag to article index and the top-N related articles of every article. Related
+ * articles score one point per shared tag plus a bonus for the same category; lists that come up
+ * short are filled with the newest articles of the category when they are read, so new articles
+ * show up there right away. A save or delete only recomputes the articles that share a tag with
+ * the changed one, and tags used by more than {@code maxPostingSize} articles are ignored as too
+ * common to tell articles apart. Updates hold the instance lock; a rebuild fills a new index off
+ * the lock and only swaps it in under it.
+ */
+@Service
+public class RelatedArticlesServiceImpl implements RelatedArticlesService, ArticleIndex {
+
+    private static final double CATEGORY_BONUS = 0.5;
+
+    private final int limit;
+
+    private final int maxPostingSize;
+
+    private volatile Index index = new Index();
+
+    public RelatedArticlesServiceImpl(@Value("${blog.related.limit:5}") int limit,
+                                      @Value("${blog.related.max-posting-size:500}") int maxPostingSize) {
+        this.limit = limit;
+        this.maxPostingSize = maxPostingSize;
+    }
+
+    @Override
+    public List<RelatedArticle> getRelatedArticles(Integer articleId){
+        Index current = this.index;
+        IndexedArticle article = current.articles.get(articleId);
+
+        if(article == null){
+            return Collections.emptyList();
+        }
+
+        List<Integer> scored = current.related.getOrDefault(articleId, Collections.emptyList());
+        List<RelatedArticle> result = new ArrayList<>(this.limit);
+
+        for (Integer id : scored){
+            current.addTo(result, id);
+        }
+
+        for (Integer id : current.newest.getOrDefault(article.category, Collections.emptyList())){
+            if(result.size() >= this.limit){
+                break;
+            }
+
+            if(!id.equals(articleId) && !scored.contains(id)){
+                current.addTo(result, id);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public synchronized void articleChanged(ArticleChange change){
+        if(change.isDeleted()){
+            this.index.delete(change.getArticleId());
+        } else {
+            this.index.save(new IndexedArticle(change.getArticleId(), change.getTitle(), change.getCategory(), change.getTags()));
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<ArticleChange> articles){
+        Index rebuilt = new Index();
+
+        for (ArticleChange article : articles){
+            rebuilt.index(new IndexedArticle(article.getArticleId(), article.getTitle(), article.getCategory(), article.getTags()));
+        }
+
+        for (IndexedArticle article : rebuilt.articles.values()){
+            rebuilt.related.put(article.id, rebuilt.computeRelated(article));
+        }
+
+        synchronized (this){
+            this.index = rebuilt;
+        }
+    }
+
+    /**
+     * The articles, their related lists and the newest articles per category are read without
+     * the lock; postings and category members are only touched by updates holding it.
+     */
+    private class Index {
+
+        private final Map<Integer, IndexedArticle> articles = new ConcurrentHashMap<>();
+
+        private final Map<Integer, List<Integer>> related = new ConcurrentHashMap<>();
+
+        private final Map<String, List<Integer>> newest = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<Integer>> postings = new HashMap<>();
+
+        private final Map<String, NavigableSet<Integer>> categories = new HashMap<>();
+
+        private void save(IndexedArticle article){
+            Set<Integer> affected = new HashSet<>();
+            IndexedArticle previous = this.articles.get(article.id);
+
+            if(previous != null){
+                this.unindex(previous);
+                affected.addAll(this.neighbours(previous));
+            }
+
+            this.index(article);
+
+            affected.addAll(this.neighbours(article));
+            affected.add(article.id);
+
+            affected.forEach(this::recompute);
+        }
+
+        private void delete(Integer articleId){
+            IndexedArticle previous = this.articles.get(articleId);
+
+            if(previous == null){
+                return;
+            }
+
+            this.unindex(previous);
+            this.related.remove(articleId);
+
+            this.neighbours(previous).forEach(this::recompute);
+        }
+
+        private void addTo(List<RelatedArticle> result, Integer articleId){
+            IndexedArticle article = this.articles.get(articleId);
+
+            if(article != null){
+                result.add(new RelatedArticle(article.id, article.title));
+            }
+        }
+
+        private void index(IndexedArticle article){
+            this.articles.put(article.id, article);
+
+            for (String tag : article.tags){
+                this.postings.computeIfAbsent(tag, name -> new HashSet<>()).add(article.id);
+            }
+
+            this.categories
+                .computeIfAbsent(article.category, name -> new TreeSet<>(Comparator.reverseOrder()))
+                .add(article.id);
+            this.refreshNewest(article.category);
+        }
+
+        private void unindex(IndexedArticle article){
+            this.articles.remove(article.id);
+
+            for (String tag : article.tags){
+                Set<Integer> posting = this.postings.get(tag);
+
+                if(posting != null){
+                    posting.remove(article.id);
+
+                    if(posting.isEmpty()){
+                        this.postings.remove(tag);
+                    }
+                }
+            }
+
+            NavigableSet<Integer> category = this.categories.get(article.category);
+
+            if(category != null){
+                category.remove(article.id);
+
+                if(category.isEmpty()){
+                    this.categories.remove(article.category);
+                }
+            }
+            this.refreshNewest(article.category);
+        }
+
+        // One more than the limit, as the list may include the article it is read for.
+        private void refreshNewest(String categoryName){
+            NavigableSet<Integer> category = this.categories.get(categoryName);
+
+            if(category == null){
+                this.newest.remove(categoryName);
+                return;
+            }
+
+            this.newest.put(categoryName, Collections.unmodifiableList(category.stream()
+                .limit(RelatedArticlesServiceImpl.this.limit + 1L)
+                .collect(Collectors.toList())));
+        }
+
+        private Set<Integer> neighbours(IndexedArticle article){
+            Set<Integer> neighbours = new HashSet<>();
+
+            for (String tag : article.tags){
+                Set<Integer> posting = this.postings.get(tag);
+
+                if(posting != null && posting.size() <= RelatedArticlesServiceImpl.this.maxPostingSize){
+                    neighbours.addAll(posting);
+                }
+            }
+
+            neighbours.remove(article.id);
+            return neighbours;
+        }
+
+        private void recompute(Integer articleId){
+            IndexedArticle article = this.articles.get(articleId);
+
+            if(article == null){
+                this.related.remove(articleId);
+                return;
+            }
+
+            this.related.put(articleId, this.computeRelated(article));
+        }
+
+        private List<Integer> computeRelated(IndexedArticle article){
+            Map<Integer, Double> scores = new HashMap<>();
+
+            for (String tag : article.tags){
+                Set<Integer> posting = this.postings.get(tag);
+
+                if(posting == null || posting.size() > RelatedArticlesServiceImpl.this.maxPostingSize){
+                    continue;
+                }
+
+                for (Integer other : posting){
+                    if(!other.equals(article.id)){
+                        scores.merge(other, 1.0, Double::sum);
+                    }
+                }
+            }
+
+            scores.replaceAll((other, score) -> {
+                IndexedArticle candidate = this.articles.get(other);
+                return candidate != null && Objects.equals(candidate.category, article.category)
+                    ? score + CATEGORY_BONUS
+                    : score;
+            });
+
+            return Collections.unmodifiableList(scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .limit(RelatedArticlesServiceImpl.this.limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList()));
+        }
+    }
+
+    private static class IndexedArticle {
+
+        private final Integer id;
+
+        private final String title;
+
+        private final String category;
+
+        private final Set<String> tags;
+
+        private IndexedArticle(Integer id, String title, String category, Set<String> tags) {
+            this.id = id;
+            this.title = title;
+            this.category = category;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package blog.service.impl;
+
+import blog.cache.ArticleChange;
+import blog.cache.ArticleIndex;
+import blog.model.TagCount;
+import blog.service.TagPopularityService;
+import blog.util.SlidingWindowCounter;
+import blog.util.TopKCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the category and tags of every article so a change can be turned into counter
+ * deltas. Trending counts tags attached within the window; a tag detached again, by an edit or
+ * by deleting the article, is taken back out of the bucket it was counted in, which is why the
+ * attach time of recent attachments is kept until they leave the window. Updates hold the
+ * instance lock, so an emptied category counter is only dropped while no other update can be
+ * adding to it; a rebuild counts off the lock and only swaps its result in under it.
+ */
+@Service
+public class TagPopularityServiceImpl implements TagPopularityService, ArticleIndex {
+
+    private final int topK;
+
+    private final SlidingWindowCounter trending;
+
+    private final long trendingWindowMillis;
+
+    private final Map<Integer, Map<String, Long>> recentAttachments = new HashMap<>();
+
+    private Map<Integer, ArticleChange> articles;
+
+    private volatile TopKCounter overall;
+
+    private volatile Map<String, TopKCounter> byCategory;
+
+    public TagPopularityServiceImpl(@Value("${blog.tags.top-k:10}") int topK,
+                                    @Value("${blog.tags.trending-window-hours:24}") int trendingWindowHours) {
+        this.topK = topK;
+        this.trending = new SlidingWindowCounter(topK, trendingWindowHours, TimeUnit.HOURS.toMillis(1));
+        this.trendingWindowMillis = TimeUnit.HOURS.toMillis(trendingWindowHours);
+        this.articles = new HashMap<>();
+        this.overall = new TopKCounter(topK);
+        this.byCategory = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public List<TagCount> getPopularTags(){
+        return this.overall.getTop();
+    }
+
+    @Override
+    public List<TagCount> getPopularTags(String categoryName){
+        TopKCounter counter = this.byCategory.get(categoryName);
+        return counter == null ? Collections.emptyList() : counter.getTop();
+    }
+
+    @Override
+    public List<TagCount> getTrendingTags(){
+        return this.trending.getTop();
+    }
+
+    @Override
+    public synchronized void articleChanged(ArticleChange change){
+        ArticleChange previous = change.isDeleted()
+            ? this.articles.remove(change.getArticleId())
+            : this.articles.put(change.getArticleId(), change);
+
+        Integer articleId = change.getArticleId();
+        String previousCategory = previous == null ? null : previous.getCategory();
+        String currentCategory = change.getCategory();
+
+        if(previousCategory == null || currentCategory == null || !previousCategory.equals(currentCategory)){
+            if(previousCategory != null){
+                this.tagsRemoved(articleId, previousCategory, previous.getTags(), change.getTags());
+            }
+            if(currentCategory != null){
+                Set<String> attached = previous == null ? change.getTags() : difference(change.getTags(), previous.getTags());
+                this.tagsAdded(articleId, currentCategory, change.getTags(), attached);
+            }
+        } else {
+            Set<String> removed = difference(previous.getTags(), change.getTags());
+            Set<String> added = difference(change.getTags(), previous.getTags());
+
+            this.tagsRemoved(articleId, previousCategory, removed, Collections.emptySet());
+            this.tagsAdded(articleId, currentCategory, added, added);
+        }
+
+        if(change.isDeleted()){
+            this.recentAttachments.remove(articleId);
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<ArticleChange> articles){
+        Map<Integer, ArticleChange> rebuiltArticles = new HashMap<>();
+        Map<String, Long> overallCounts = new HashMap<>();
+        Map<String, Map<String, Long>> categoryCounts = new HashMap<>();
+
+        for (ArticleChange article : articles){
+            rebuiltArticles.put(article.getArticleId(), article);
+            Map<String, Long> counts = categoryCounts.computeIfAbsent(article.getCategory(), name -> new HashMap<>());
+
+            for (String tagName : article.getTags()){
+                overallCounts.merge(tagName, 1L, Long::sum);
+                counts.merge(tagName, 1L, Long::sum);
+            }
+        }
+
+        TopKCounter rebuiltOverall = new TopKCounter(this.topK);
+        overallCounts.forEach(rebuiltOverall::add);
+
+        Map<String, TopKCounter> rebuiltByCategory = new ConcurrentHashMap<>();
+        categoryCounts.forEach((categoryName, counts) -> {
+            if(!counts.isEmpty()){
+                TopKCounter counter = new TopKCounter(this.topK);
+                counts.forEach(counter::add);
+                rebuiltByCategory.put(categoryName, counter);
+            }
+        });
+
+        synchronized (this){
+            this.articles = rebuiltArticles;
+            this.overall = rebuiltOverall;
+            this.byCategory = rebuiltByCategory;
+        }
+    }
+
+    @Scheduled(fixedRateString = "${blog.tags.trending-rotate-ms:60000}")
+    public void rotateTrendingWindow(){
+        long now = System.currentTimeMillis();
+        this.trending.advance(now);
+
+        synchronized (this){
+            this.recentAttachments.values().forEach(tags -> tags.values().removeIf(addedAt -> addedAt <= now - this.trendingWindowMillis));
+            this.recentAttachments.values().removeIf(Map::isEmpty);
+        }
+    }
+
+    /**
+     * Counts {@code tagNames} in the category rankings; only {@code attached}, the tags the
+     * article did not have before, count as trending.
+     */
+    private void tagsAdded(Integer articleId, String categoryName, Collection<String> tagNames, Collection<String> attached){
+        if(tagNames.isEmpty()){
+            return;
+        }
+
+        TopKCounter categoryCounter = this.byCategory.computeIfAbsent(categoryName, name -> new TopKCounter(this.topK));
+
+        for (String tagName : tagNames){
+            this.overall.add(tagName, 1);
+            categoryCounter.add(tagName, 1);
+        }
+
+        long now = System.currentTimeMillis();
+
+        for (String tagName : attached){
+            this.trending.add(tagName, now);
+            this.recentAttachments.computeIfAbsent(articleId, id -> new HashMap<>()).put(tagName, now);
+        }
+    }
+
+    /**
+     * Uncounts {@code tagNames} from the category rankings; those not in {@code kept}, the tags
+     * the article still has, are also taken back from trending.
+     */
+    private void tagsRemoved(Integer articleId, String categoryName, Collection<String> tagNames, Collection<String> kept){
+        TopKCounter categoryCounter = this.byCategory.get(categoryName);
+        Map<String, Long> attachedAt = this.recentAttachments.getOrDefault(articleId, Collections.emptyMap());
+        long now = System.currentTimeMillis();
+
+        for (String tagName : tagNames){
+            this.overall.add(tagName, -1);
+
+            if(categoryCounter != null){
+                categoryCounter.add(tagName, -1);
+            }
+
+            if(!kept.contains(tagName)){
+                Long addedAt = attachedAt.remove(tagName);
+
+                if(addedAt != null){
+                    this.trending.remove(tagName, addedAt, now);
+                }
+            }
+        }
+
+        if(categoryCounter != null && categoryCounter.isEmpty()){
+            this.byCategory.remove(categoryName, categoryCounter);
+        }
+    }
+
+    private static Set<String> difference(Set<String> tags, Set<String> minus){
+        Set<String> difference = new LinkedHashSet<>(tags);
+        difference.removeAll(minus);
+        return difference;
+    }
+}
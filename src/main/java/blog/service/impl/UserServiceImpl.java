@@ -1,7 +1,12 @@
 package blog.service.impl;
 
+import blog.cache.DomainChangeEvent;
+import blog.cache.EntityType;
+import blog.datasource.ReplicaRead;
+import blog.security.SignedCookieSecurityContextRepository;
 import blog.service.MailSenderService;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,7 +14,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
+import org.springframework.web.util.WebUtils;
 import blog.model.UserModel;
 import blog.model.UserEditModel;
 import blog.entity.Article;
@@ -17,8 +24,10 @@ import blog.entity.Role;
 import blog.entity.User;
 import blog.repository.RoleRepository;
 import blog.repository.UserRepository;
+import blog.service.EntityVersionService;
 import blog.service.UserService;
 
+import javax.persistence.EntityManager;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -34,6 +43,8 @@ import static blog.util.StringUtils.*;
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String REDIRECT_USER_EDIT_CONFLICT = "redirect:/user/edit/{0}?conflict";
+
     private final RoleRepository roleRepository;
 
     private final UserRepository userRepository;
@@ -42,6 +53,12 @@ public class UserServiceImpl implements UserService {
 
     private final BCryptPasswordEncoder passwordEncoder;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityVersionService entityVersionService;
+
+    private final EntityManager entityManager;
+
     @Override
     public String loadRegisterView(Model model){
         model.addAttribute(VIEW, USER_REGISTER);
@@ -128,10 +145,15 @@ public class UserServiceImpl implements UserService {
             new SecurityContextLogoutHandler().logout(request, response, auth);
         }
 
+        if(WebUtils.getCookie(request, SignedCookieSecurityContextRepository.AUTH_COOKIE) != null){
+            SignedCookieSecurityContextRepository.clearCookie(request, response);
+        }
+
         return MessageFormat.format(REDIRECT_LOGIN_WITH_QUERY, LOGOUT);
     }
 
     @Override
+    @ReplicaRead
     public String loadProfilePageView(Model model) {
         UserDetails principal = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -157,6 +179,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @ReplicaRead
     public String loadForgotPasswordView(Integer id, Model model){
         if(!this.userRepository.existsById(id)){
             return REDIRECT_LOGIN;
@@ -203,6 +226,8 @@ public class UserServiceImpl implements UserService {
 
             this.userRepository.saveAndFlush(user);
 
+            this.eventPublisher.publishEvent(DomainChangeEvent.of(EntityType.USER, user.getId()));
+
             return REDIRECT_LOGIN;
         }
 
@@ -223,6 +248,13 @@ public class UserServiceImpl implements UserService {
             return REDIRECT_PROFILE;
         }
 
+        this.entityVersionService.addEditVersion(EntityType.USER, id, model);
+        this.entityManager.detach(user);
+
+        user = this.userRepository.findById(id).orElseThrow(
+            () -> new IllegalArgumentException(MessageFormat.format(INVALID_USER_ID, id))
+        );
+
         model.addAttribute(USER, user);
         model.addAttribute(VIEW, USER_EDIT);
 
@@ -230,6 +262,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public String editUser(Integer id, UserEditModel userEditModel) throws IOException {
         if(!this.userRepository.existsById(id)){
             return REDIRECT_PROFILE;
@@ -243,6 +276,10 @@ public class UserServiceImpl implements UserService {
             return REDIRECT_PROFILE;
         }
 
+        if(!this.entityVersionService.advanceEdited(EntityType.USER, id)){
+            return MessageFormat.format(REDIRECT_USER_EDIT_CONFLICT, id);
+        }
+
         String password = userEditModel.getPassword();
         String confirmPassword = userEditModel.getConfirmPassword();
 
@@ -262,6 +299,8 @@ public class UserServiceImpl implements UserService {
 
         this.userRepository.saveAndFlush(user);
 
+        this.eventPublisher.publishEvent(DomainChangeEvent.of(EntityType.USER, id));
+
         return REDIRECT_PROFILE;
     }
 
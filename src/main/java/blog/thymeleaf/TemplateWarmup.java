@@ -0,0 +1,217 @@
+package blog.thymeleaf;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.RequestContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.spring5.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.spring5.naming.SpringContextVariableNames;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static blog.util.StringUtils.BASE_LAYOUT;
+import static blog.util.StringUtils.VIEW;
+
+/**
+ * Renders every template once after startup. With template caching on, a template is parsed and
+ * cached before it is processed, so even views that fail here for lack of a model are served
+ * from the cache on the first real request. Rendering happens in a web context backed by a
+ * stand-in GET request for the context root, so context-relative links resolve and the layout's
+ * head, header and footer fragments are reached and cached as well.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "blog.rendering.warm-up", havingValue = "true")
+public class TemplateWarmup {
+
+    private static final String TEMPLATES_ROOT = "/templates/";
+
+    private static final String TEMPLATE_SUFFIX = ".html";
+
+    private static final String LOGIN_VIEW = "user/login";
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final ServletContext servletContext;
+
+    private final ApplicationContext applicationContext;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() throws IOException {
+        long started = System.currentTimeMillis();
+        List<String> templates = findTemplates();
+        int rendered = 0;
+
+        for (String template : templates) {
+            if (this.render(template, Collections.emptyMap())) {
+                rendered++;
+            }
+        }
+
+        this.render(BASE_LAYOUT, Collections.singletonMap(VIEW, LOGIN_VIEW));
+
+        log.info("Warmed up {} templates ({} rendered without a model) in {} ms",
+            templates.size(), rendered, System.currentTimeMillis() - started);
+    }
+
+    private boolean render(String template, Map<String, Object> variables) {
+        try {
+            this.templateEngine.process(template, this.webContext(variables), Writer.nullWriter());
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Template {} needs a model to render, kept parsed only", template);
+            return false;
+        }
+    }
+
+    private WebContext webContext(Map<String, Object> variables) {
+        HttpServletRequest request = this.warmupRequest();
+        HttpServletResponse response = warmupResponse();
+
+        WebContext context = new WebContext(request, response, this.servletContext, Locale.getDefault(), variables);
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+            new ThymeleafEvaluationContext(this.applicationContext, null));
+
+        try {
+            context.setVariable(SpringContextVariableNames.SPRING_REQUEST_CONTEXT,
+                new RequestContext(request, response, this.servletContext, variables));
+        } catch (RuntimeException e) {
+            log.debug("No Spring request context for template warm-up", e);
+        }
+
+        return context;
+    }
+
+    private HttpServletRequest warmupRequest() {
+        Map<String, Object> attributes = new HashMap<>();
+        String contextPath = this.servletContext.getContextPath();
+
+        return (HttpServletRequest) Proxy.newProxyInstance(
+            HttpServletRequest.class.getClassLoader(),
+            new Class<?>[]{HttpServletRequest.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getAttribute":
+                        return attributes.get((String) args[0]);
+                    case "setAttribute":
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    case "removeAttribute":
+                        attributes.remove((String) args[0]);
+                        return null;
+                    case "getAttributeNames":
+                        return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+                    case "getParameterMap":
+                        return Collections.emptyMap();
+                    case "getParameterNames":
+                    case "getHeaderNames":
+                    case "getHeaders":
+                    case "getLocales":
+                        return Collections.emptyEnumeration();
+                    case "getContextPath":
+                        return contextPath;
+                    case "getRequestURI":
+                        return contextPath + "/";
+                    case "getRequestURL":
+                        return new StringBuffer("http://localhost" + contextPath + "/");
+                    case "getServletPath":
+                        return "/";
+                    case "getMethod":
+                        return "GET";
+                    case "getScheme":
+                        return "http";
+                    case "getServerName":
+                        return "localhost";
+                    case "getServerPort":
+                        return 80;
+                    case "getLocale":
+                        return Locale.getDefault();
+                    case "getCharacterEncoding":
+                        return StandardCharsets.UTF_8.name();
+                    case "getServletContext":
+                        return this.servletContext;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "template warm-up request";
+                    default:
+                        return defaultValue(method.getReturnType());
+                }
+            });
+    }
+
+    private static HttpServletResponse warmupResponse() {
+        return (HttpServletResponse) Proxy.newProxyInstance(
+            HttpServletResponse.class.getClassLoader(),
+            new Class<?>[]{HttpServletResponse.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "encodeURL":
+                    case "encodeRedirectURL":
+                        return args[0];
+                    case "getCharacterEncoding":
+                        return StandardCharsets.UTF_8.name();
+                    case "getLocale":
+                        return Locale.getDefault();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "template warm-up response";
+                    default:
+                        return defaultValue(method.getReturnType());
+                }
+            });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static List<String> findTemplates() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+            .getResources("classpath*:" + TEMPLATES_ROOT + "**/*" + TEMPLATE_SUFFIX);
+        List<String> templates = new ArrayList<>();
+
+        for (Resource resource : resources) {
+            String path = resource.getURL().getPath();
+            int root = path.lastIndexOf(TEMPLATES_ROOT);
+            templates.add(path.substring(root + TEMPLATES_ROOT.length(), path.length() - TEMPLATE_SUFFIX.length()));
+        }
+
+        return templates;
+    }
+}
@@ -0,0 +1,29 @@
+package blog.thymeleaf;
+
+import org.thymeleaf.dialect.AbstractDialect;
+import org.thymeleaf.dialect.IPostProcessorDialect;
+import org.thymeleaf.postprocessor.IPostProcessor;
+import org.thymeleaf.postprocessor.PostProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.util.Collections;
+import java.util.Set;
+
+public class WhitespaceMinifyingDialect extends AbstractDialect implements IPostProcessorDialect {
+
+    private static final int PRECEDENCE = 1000;
+
+    public WhitespaceMinifyingDialect() {
+        super("whitespace-minifying");
+    }
+
+    @Override
+    public int getDialectPostProcessorPrecedence() {
+        return PRECEDENCE;
+    }
+
+    @Override
+    public Set<IPostProcessor> getPostProcessors() {
+        return Collections.singleton(new PostProcessor(TemplateMode.HTML, WhitespaceMinifyingHandler.class, PRECEDENCE));
+    }
+}
@@ -0,0 +1,72 @@
+package blog.thymeleaf;
+
+import org.thymeleaf.engine.AbstractTemplateHandler;
+import org.thymeleaf.model.ICloseElementTag;
+import org.thymeleaf.model.IOpenElementTag;
+import org.thymeleaf.model.IText;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Collapses whitespace-only text between tags to a single character while the page is being
+ * written, so the indentation of the templates never reaches the client. Text inside elements
+ * where whitespace is significant is passed through untouched.
+ */
+public class WhitespaceMinifyingHandler extends AbstractTemplateHandler {
+
+    private static final Set<String> PRESERVING_ELEMENTS = new HashSet<>(Arrays.asList("pre", "textarea", "script", "style"));
+
+    private int preservingDepth;
+
+    @Override
+    public void handleOpenElement(IOpenElementTag openElementTag) {
+        if (isPreserving(openElementTag.getElementCompleteName())) {
+            this.preservingDepth++;
+        }
+        super.handleOpenElement(openElementTag);
+    }
+
+    @Override
+    public void handleCloseElement(ICloseElementTag closeElementTag) {
+        if (this.preservingDepth > 0 && isPreserving(closeElementTag.getElementCompleteName())) {
+            this.preservingDepth--;
+        }
+        super.handleCloseElement(closeElementTag);
+    }
+
+    @Override
+    public void handleText(IText text) {
+        if (this.preservingDepth > 0 || text.length() < 2 || !isBlank(text)) {
+            super.handleText(text);
+            return;
+        }
+
+        String collapsed = containsNewline(text) ? "\n" : " ";
+        super.handleText(getContext().getModelFactory().createText(collapsed));
+    }
+
+    private static boolean isPreserving(String elementName) {
+        return PRESERVING_ELEMENTS.contains(elementName.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsNewline(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,90 @@
+package blog.util;
+
+import blog.model.TagCount;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts names over the last {@code buckets * bucketMillis} milliseconds. Every bucket keeps
+ * its own counts; when a bucket falls out of the window its counts are subtracted again from
+ * the aggregated {@link TopKCounter}.
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketMillis;
+
+    private final Map<String, Long>[] buckets;
+
+    private final TopKCounter window;
+
+    private long currentBucket;
+
+    @SuppressWarnings("unchecked")
+    public SlidingWindowCounter(int k, int buckets, long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new Map[buckets];
+        this.window = new TopKCounter(k);
+        this.currentBucket = System.currentTimeMillis() / bucketMillis;
+
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new HashMap<>();
+        }
+    }
+
+    public synchronized void add(String name, long now) {
+        this.advance(now);
+
+        Map<String, Long> bucket = this.buckets[(int) (this.currentBucket % this.buckets.length)];
+        bucket.merge(name, 1L, Long::sum);
+
+        this.window.add(name, 1);
+    }
+
+    /**
+     * Takes back one count of {@code name} that was added at {@code addedAt}, unless that bucket
+     * has already left the window.
+     */
+    public synchronized void remove(String name, long addedAt, long now) {
+        this.advance(now);
+
+        long bucketIndex = addedAt / this.bucketMillis;
+
+        if (bucketIndex > this.currentBucket || bucketIndex <= this.currentBucket - this.buckets.length) {
+            return;
+        }
+
+        Map<String, Long> bucket = this.buckets[(int) (bucketIndex % this.buckets.length)];
+        Long count = bucket.get(name);
+
+        if (count == null) {
+            return;
+        }
+
+        if (count == 1) {
+            bucket.remove(name);
+        } else {
+            bucket.put(name, count - 1);
+        }
+
+        this.window.add(name, -1);
+    }
+
+    public synchronized void advance(long now) {
+        long target = now / this.bucketMillis;
+        long steps = Math.min(target - this.currentBucket, this.buckets.length);
+
+        for (long i = 1; i <= steps; i++) {
+            Map<String, Long> expired = this.buckets[(int) ((this.currentBucket + i) % this.buckets.length)];
+            expired.forEach((name, count) -> this.window.add(name, -count));
+            expired.clear();
+        }
+
+        this.currentBucket = Math.max(this.currentBucket, target);
+    }
+
+    public List<TagCount> getTop() {
+        return this.window.getTop();
+    }
+}
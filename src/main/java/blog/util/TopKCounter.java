@@ -0,0 +1,73 @@
+package blog.util;
+
+import blog.model.TagCount;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Keeps a ranking of counted names ordered by count and republishes the first {@code k}
+ * entries after every update, so readers get the current top-K without touching the ranking.
+ */
+public class TopKCounter {
+
+    private static final Comparator<TagCount> RANKING_ORDER = Comparator
+        .comparingLong(TagCount::getCount).reversed()
+        .thenComparing(TagCount::getName);
+
+    private final int k;
+
+    private final Map<String, Long> counts = new HashMap<>();
+
+    private final NavigableSet<TagCount> ranking = new TreeSet<>(RANKING_ORDER);
+
+    private volatile List<TagCount> top = Collections.emptyList();
+
+    public TopKCounter(int k) {
+        this.k = k;
+    }
+
+    public synchronized void add(String name, long delta) {
+        long current = this.counts.getOrDefault(name, 0L);
+        long updated = current + delta;
+
+        if (current > 0) {
+            this.ranking.remove(new TagCount(name, current));
+        }
+
+        if (updated > 0) {
+            this.counts.put(name, updated);
+            this.ranking.add(new TagCount(name, updated));
+        } else {
+            this.counts.remove(name);
+        }
+
+        this.publish();
+    }
+
+    public List<TagCount> getTop() {
+        return this.top;
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.counts.isEmpty();
+    }
+
+    private void publish() {
+        List<TagCount> snapshot = new ArrayList<>(this.k);
+        Iterator<TagCount> iterator = this.ranking.iterator();
+
+        while (iterator.hasNext() && snapshot.size() < this.k) {
+            snapshot.add(iterator.next());
+        }
+
+        this.top = Collections.unmodifiableList(snapshot);
+    }
+}
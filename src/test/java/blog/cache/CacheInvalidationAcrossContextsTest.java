@@ -0,0 +1,170 @@
+package blog.cache;
+
+import blog.entity.Article;
+import blog.entity.Category;
+import blog.entity.User;
+import blog.model.ArticleModel;
+import blog.repository.ArticleRepository;
+import blog.repository.CategoryRepository;
+import blog.repository.UserRepository;
+import blog.security.UserPrincipal;
+import blog.service.ArticleService;
+import blog.service.EntityVersionService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.AnnotatedClassFinder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts two application contexts in one JVM on a shared database, edits an article in one and
+ * checks that a listener in the other receives the change, for both transports.
+ */
+class CacheInvalidationAcrossContextsTest {
+
+    private static final Class<?> APPLICATION = new AnnotatedClassFinder(SpringBootConfiguration.class)
+        .findFromClass(CacheInvalidationAcrossContextsTest.class);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"in-jvm", "database"})
+    void editInOneContextReachesTheOther(String transport) throws Exception {
+        String database = "jdbc:h2:mem:invalidation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        RecordingListener writerListener = new RecordingListener();
+        RecordingListener readerListener = new RecordingListener();
+
+        try (ConfigurableApplicationContext writer = start(transport, database, writerListener);
+             ConfigurableApplicationContext reader = start(transport, database, readerListener)) {
+            Integer articleId = edit(writer);
+
+            Received local = this.next(writerListener, articleId);
+            assertFalse(local.remote);
+
+            Received remote = this.next(readerListener, articleId);
+            assertTrue(remote.remote);
+            assertEquals(EntityType.ARTICLE, remote.event.getEntityType());
+            assertEquals(articleId, remote.event.getEntityId());
+            assertNotNull(remote.event.getOriginNode());
+            assertTrue(reader.isActive());
+        }
+    }
+
+    private Received next(RecordingListener listener, Integer articleId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (System.nanoTime() < deadline) {
+            Received received = listener.events.poll(100, TimeUnit.MILLISECONDS);
+
+            if (received != null && received.event.getEntityType() == EntityType.ARTICLE
+                    && articleId.equals(received.event.getEntityId())) {
+                return received;
+            }
+        }
+
+        throw new AssertionError("no event for article " + articleId);
+    }
+
+    private static ConfigurableApplicationContext start(String transport, String database, RecordingListener listener) {
+        return new SpringApplicationBuilder(APPLICATION)
+            .initializers(context -> context.getBeanFactory().registerSingleton("recordingListener", listener))
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=" + database,
+                "spring.jpa.hibernate.ddl-auto=update",
+                "blog.cache.transport=" + transport,
+                "blog.cache.poll-ms=100")
+            .run();
+    }
+
+    private static Integer edit(ConfigurableApplicationContext context) throws Exception {
+        String suffix = UUID.randomUUID().toString();
+
+        User author = context.getBean(UserRepository.class).saveAndFlush(User
+            .builder()
+            .email("author-" + suffix + "@example.com")
+            .fullName("Author")
+            .password("password")
+            .build());
+
+        Category category = context.getBean(CategoryRepository.class).saveAndFlush(Category
+            .builder()
+            .name("Category " + suffix)
+            .build());
+
+        Integer articleId = context.getBean(ArticleRepository.class).saveAndFlush(Article
+            .builder()
+            .title("Original")
+            .content("Original content")
+            .author(author)
+            .category(category)
+            .tags(new ArrayList<>())
+            .build()).getId();
+
+        long version = context.getBean(EntityVersionService.class).currentVersion(EntityType.ARTICLE, articleId);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/article/edit/" + articleId);
+        request.setParameter(EntityVersionService.EDIT_VERSION, String.valueOf(version));
+
+        UserPrincipal principal = new UserPrincipal(author.getId(), author.getEmail(), null, Collections.emptyList());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        try {
+            ArticleModel articleModel = new ArticleModel();
+            articleModel.setTitle("Edited");
+            articleModel.setContent("Edited content");
+            articleModel.setCategoryId(category.getId());
+            articleModel.setTagString("invalidation");
+            articleModel.setPicture(new MockMultipartFile("picture", new byte[0]));
+
+            context.getBean(ArticleService.class).editArticle(articleId, articleModel);
+        } finally {
+            SecurityContextHolder.clearContext();
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        return articleId;
+    }
+
+    private static class RecordingListener implements CacheInvalidationListener {
+
+        private final BlockingQueue<Received> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void invalidate(DomainChangeEvent event, boolean remote) {
+            this.events.add(new Received(event, remote));
+        }
+    }
+
+    private static class Received {
+
+        private final DomainChangeEvent event;
+
+        private final boolean remote;
+
+        private Received(DomainChangeEvent event, boolean remote) {
+            this.event = event;
+            this.remote = remote;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package blog.config;
+
+import blog.repository.UserRepository;
+import blog.service.MailSenderService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the JDBC, security and mail paths concurrently on the virtual-thread executor and fails
+ * when any of them pins a carrier thread while blocking. Mail goes through the application's
+ * {@link MailSenderService} to a stub SMTP server, so it covers the hand-off to platform threads
+ * that keeps JavaMail's synchronized socket I/O off the virtual threads.
+ */
+@SpringBootTest(properties = "blog.threads.virtual=true")
+class VirtualThreadPinningTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int TASKS = 200;
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MailSenderService mailSenderService;
+
+    @DynamicPropertySource
+    static void smtpStub(DynamicPropertyRegistry registry) throws IOException {
+        ServerSocket smtp = new ServerSocket(0);
+        Thread server = new Thread(() -> serveSmtp(smtp));
+        server.setDaemon(true);
+        server.start();
+
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", smtp::getLocalPort);
+    }
+
+    @BeforeAll
+    static void requireVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21");
+    }
+
+    @Test
+    void jdbcPathDoesNotPin() throws Exception {
+        this.assertNoPinning(() -> this.userRepository.findByEmail("pinning@example.com"));
+    }
+
+    @Test
+    void securityPathDoesNotPin() throws Exception {
+        String hash = this.passwordEncoder.encode("password");
+
+        this.assertNoPinning(() -> {
+            try {
+                this.userDetailsService.loadUserByUsername("pinning-" + Thread.currentThread().getId() + "@example.com");
+            } catch (UsernameNotFoundException expected) {
+                // only the lookup matters
+            }
+            this.passwordEncoder.matches("password", hash);
+        });
+    }
+
+    @Test
+    void mailPathDoesNotPin() throws Exception {
+        this.assertNoPinning(() -> this.mailSenderService.send("reader@example.com", "Pinning check", "body"));
+    }
+
+    private void assertNoPinning(Runnable task) throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        AtomicBoolean finished = new AtomicBoolean();
+        CountDownLatch flushedAfterFinish = new CountDownLatch(2);
+
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent(PINNED_EVENT, pinned::add);
+            stream.onFlush(() -> {
+                if (finished.get()) {
+                    flushedAfterFinish.countDown();
+                }
+            });
+            stream.startAsync();
+
+            List<Future<?>> futures = new ArrayList<>(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                futures.add(this.virtualThreadExecutor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            // Events reach the stream with the next flush; wait for two so none are still buffered.
+            finished.set(true);
+            assertTrue(flushedAfterFinish.await(30, TimeUnit.SECONDS), "recording was not flushed");
+        }
+
+        assertTrue(pinned.isEmpty(), () -> pinned.size() + " pinned events, first at:\n" + describe(pinned.get(0)));
+    }
+
+    private static String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "<no stack trace>";
+        }
+
+        return event.getStackTrace().getFrames().stream()
+            .limit(12)
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+            .collect(Collectors.joining("\n\tat "));
+    }
+
+    private static void serveSmtp(ServerSocket smtp) {
+        while (!smtp.isClosed()) {
+            try {
+                Socket socket = smtp.accept();
+                Thread worker = new Thread(() -> answerSmtp(socket));
+                worker.setDaemon(true);
+                worker.start();
+            } catch (Exception e) {
+                return;
+            }
+        }
+    }
+
+    private static void answerSmtp(Socket socket) {
+        try (Socket client = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(client.getOutputStream(), true)) {
+            out.print("220 localhost\r\n");
+            out.flush();
+
+            String line;
+            boolean data = false;
+
+            while ((line = in.readLine()) != null) {
+                if (data) {
+                    if (line.equals(".")) {
+                        data = false;
+                        out.print("250 OK\r\n");
+                        out.flush();
+                    }
+                } else if (line.startsWith("DATA")) {
+                    data = true;
+                    out.print("354 End data with <CR><LF>.<CR><LF>\r\n");
+                    out.flush();
+                } else if (line.startsWith("QUIT")) {
+                    out.print("221 Bye\r\n");
+                    out.flush();
+                    return;
+                } else {
+                    out.print("250 OK\r\n");
+                    out.flush();
+                }
+            }
+        } catch (Exception ignored) {
+            // the client closed the connection
+        }
+    }
+}
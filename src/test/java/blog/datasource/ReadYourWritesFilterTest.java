@@ -0,0 +1,72 @@
+package blog.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(5000);
+
+    @Test
+    void postForcesPrimaryAndSetsCookieWithoutSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/article/edit/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean forced = new AtomicBoolean();
+
+        this.filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                forced.set(RoutingContext.isPrimaryForced());
+                res.sendRedirect("/article/1");
+            }
+        }));
+
+        assertTrue(forced.get());
+        assertNotNull(response.getCookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE));
+        assertNull(request.getSession(false));
+        assertFalse(RoutingContext.isPrimaryForced());
+    }
+
+    @Test
+    void getWithRecentWriteCookieForcesPrimary() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/article/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, String.valueOf(System.currentTimeMillis() + 5000)));
+
+        assertTrue(this.forcedDuring(request));
+    }
+
+    @Test
+    void getWithExpiredOrMalformedCookieUsesReplica() throws Exception {
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/article/1");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, String.valueOf(System.currentTimeMillis() - 1)));
+
+        MockHttpServletRequest malformed = new MockHttpServletRequest("GET", "/article/1");
+        malformed.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, "soon"));
+
+        assertFalse(this.forcedDuring(expired));
+        assertFalse(this.forcedDuring(malformed));
+    }
+
+    private boolean forcedDuring(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean forced = new AtomicBoolean();
+
+        this.filter.doFilter(request, new MockHttpServletResponse(),
+            (req, res) -> forced.set(RoutingContext.isPrimaryForced()));
+
+        return forced.get();
+    }
+}
@@ -0,0 +1,121 @@
+package blog.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes through two embedded H2 databases, told apart by their database name.
+ */
+class RoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        this.primary = h2("primary-" + suffix);
+        this.replica = h2("replica-" + suffix);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceType.PRIMARY, this.primary);
+        targets.put(DataSourceType.REPLICA, this.replica);
+
+        RoutingDataSource routingDataSource = new RoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(this.primary);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+    }
+
+    @Test
+    void replicaReadInReadOnlyTransactionUsesReplica() {
+        RoutingContext.setReplicaRequested(true);
+
+        assertEquals(databaseName(this.replica), this.readOnly.execute(status -> this.currentDatabase()));
+    }
+
+    @Test
+    void readOnlyTransactionWithoutReplicaReadUsesPrimary() {
+        assertEquals(databaseName(this.primary), this.readOnly.execute(status -> this.currentDatabase()));
+    }
+
+    @Test
+    void replicaReadInsideWriteTransactionUsesPrimary() {
+        RoutingContext.setReplicaRequested(true);
+
+        assertEquals(databaseName(this.primary), this.readWrite.execute(status -> this.currentDatabase()));
+    }
+
+    @Test
+    void forcedPrimaryOverridesReplicaRead() {
+        RoutingContext.setReplicaRequested(true);
+        RoutingContext.setPrimaryForced(true);
+
+        assertEquals(databaseName(this.primary), this.readOnly.execute(status -> this.currentDatabase()));
+    }
+
+    @Test
+    void synchronizerCopiesSchemaAndDataToReplica() throws Exception {
+        JdbcTemplate primaryTemplate = new JdbcTemplate(this.primary);
+        primaryTemplate.execute("CREATE TABLE articles (id INT PRIMARY KEY, title VARCHAR(255))");
+        primaryTemplate.update("INSERT INTO articles VALUES (1, 'First')");
+
+        H2ReplicaSynchronizer synchronizer = new H2ReplicaSynchronizer(this.primary, this.replica);
+        synchronizer.synchronize();
+
+        RoutingContext.setReplicaRequested(true);
+        assertEquals("First", this.readOnly.execute(status ->
+            this.jdbcTemplate.queryForObject("SELECT title FROM articles WHERE id = 1", String.class)));
+
+        primaryTemplate.update("UPDATE articles SET title = 'Edited' WHERE id = 1");
+        synchronizer.synchronize();
+
+        assertEquals("Edited", this.readOnly.execute(status ->
+            this.jdbcTemplate.queryForObject("SELECT title FROM articles WHERE id = 1", String.class)));
+    }
+
+    private String currentDatabase() {
+        return this.jdbcTemplate.queryForObject("CALL DATABASE()", String.class);
+    }
+
+    private static String databaseName(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("CALL DATABASE()", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,209 @@
+package blog.service.impl;
+
+import blog.cache.EntityType;
+import blog.entity.Article;
+import blog.entity.Category;
+import blog.entity.Tag;
+import blog.entity.User;
+import blog.model.ArticleModel;
+import blog.repository.ArticleRepository;
+import blog.repository.CategoryRepository;
+import blog.repository.TagRepository;
+import blog.repository.UserRepository;
+import blog.security.UserPrincipal;
+import blog.service.ArticleService;
+import blog.service.EntityVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static blog.util.StringUtils.REDIRECT_ARTICLES_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Submits many edits of one article concurrently, all based on the same form version, and checks
+ * that exactly one of them is applied while the others are turned away as conflicts.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+class ArticleEditConcurrencyTest {
+
+    private static final int EDITORS = 16;
+
+    private static final String TAG = "concurrency";
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private EntityVersionService entityVersionService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User author;
+
+    private Category category;
+
+    private Integer articleId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+
+        this.author = this.userRepository.saveAndFlush(User
+            .builder()
+            .email("author-" + suffix + "@example.com")
+            .fullName("Author")
+            .password("password")
+            .build());
+
+        this.category = this.categoryRepository.saveAndFlush(Category
+            .builder()
+            .name("Category " + suffix)
+            .build());
+
+        this.articleId = this.articleRepository.saveAndFlush(Article
+            .builder()
+            .title("Original")
+            .content("Original content")
+            .author(this.author)
+            .category(this.category)
+            .tags(new ArrayList<>())
+            .build()).getId();
+
+        // Created up front so the concurrent edits do not race to insert the same tag.
+        if (this.tagRepository.findByName(TAG) == null) {
+            this.tagRepository.saveAndFlush(Tag.builder().name(TAG).build());
+        }
+    }
+
+    @Test
+    void concurrentEditsFromTheSameVersionApplyExactlyOnce() throws Exception {
+        long version = this.entityVersionService.currentVersion(EntityType.ARTICLE, this.articleId);
+        String applied = MessageFormat.format(REDIRECT_ARTICLES_ID, this.articleId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(EDITORS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < EDITORS; i++) {
+                String title = "Edit " + i;
+                results.add(executor.submit(this.edit(title, String.valueOf(version), start)));
+            }
+
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<String> result : results) {
+                String outcome;
+                try {
+                    outcome = result.get(60, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    // a writer that lost the row lock race may be rolled back by the database
+                    if (e.getCause() instanceof ConcurrencyFailureException) {
+                        continue;
+                    }
+                    throw e;
+                }
+                if (applied.equals(outcome)) {
+                    succeeded++;
+                } else {
+                    assertTrue(outcome.endsWith("?conflict"), outcome);
+                }
+            }
+
+            assertEquals(1, succeeded);
+            assertEquals(version + 1, this.entityVersionService.currentVersion(EntityType.ARTICLE, this.articleId));
+            assertTrue(this.articleRepository.findById(this.articleId).orElseThrow(IllegalStateException::new)
+                .getTitle().startsWith("Edit "));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void editWithoutVersionIsAConflict() throws Exception {
+        String outcome = this.edit("No version", null, new CountDownLatch(0)).call();
+
+        assertTrue(outcome.endsWith("?conflict"), outcome);
+        assertEquals("Original", this.articleRepository.findById(this.articleId).orElseThrow(IllegalStateException::new).getTitle());
+    }
+
+    @Test
+    void staleVersionIsAConflict() throws Exception {
+        long version = this.entityVersionService.currentVersion(EntityType.ARTICLE, this.articleId);
+
+        assertEquals(MessageFormat.format(REDIRECT_ARTICLES_ID, this.articleId),
+            this.edit("First", String.valueOf(version), new CountDownLatch(0)).call());
+
+        String outcome = this.edit("Second", String.valueOf(version), new CountDownLatch(0)).call();
+
+        assertTrue(outcome.endsWith("?conflict"), outcome);
+        assertEquals("First", this.articleRepository.findById(this.articleId).orElseThrow(IllegalStateException::new).getTitle());
+    }
+
+    private Callable<String> edit(String title, String version, CountDownLatch start) {
+        return () -> {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/article/edit/" + this.articleId);
+            if (version != null) {
+                request.setParameter(EntityVersionService.EDIT_VERSION, version);
+            }
+
+            UserPrincipal principal = new UserPrincipal(this.author.getId(), this.author.getEmail(), null, Collections.emptyList());
+
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+            try {
+                start.await();
+
+                ArticleModel articleModel = new ArticleModel();
+                articleModel.setTitle(title);
+                articleModel.setContent(title + " content");
+                articleModel.setCategoryId(this.category.getId());
+                articleModel.setTagString(TAG);
+                articleModel.setPicture(new MockMultipartFile("picture", new byte[0]));
+
+                return this.articleService.editArticle(this.articleId, articleModel);
+            } finally {
+                SecurityContextHolder.clearContext();
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+    }
+}